@@ -0,0 +1,53 @@
+package com.ecobazaarx.v2.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Wraps the pool so every JDBC statement (JPA and JdbcTemplate alike) is counted
+// and timed against the request that issued it.
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new RequestQueryListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static class RequestQueryListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats == null) {
+                return;
+            }
+            List<String> queries = queryInfoList.stream().map(QueryInfo::getQuery).toList();
+            stats.record(queries, TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()));
+        }
+    }
+}
@@ -7,9 +7,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,7 +20,8 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -45,10 +45,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 filterChain.doFilter(request, response);
                 return;
             }
-            userEmail = jwtService.extractUsername(jwt);
+            ParsedToken token = jwtService.parseToken(jwt);
+            userEmail = token.getSubject();
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                AuthenticatedUser userDetails = resolvePrincipal(token, userEmail);
+                if (jwtService.isTokenValid(token, userDetails)
+                        && userDetails.isEnabled() && userDetails.isAccountNonLocked()) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -63,4 +65,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Stateless tokens carry everything we need; locks and role changes revoke them by version.
+    private AuthenticatedUser resolvePrincipal(ParsedToken token, String userEmail) {
+        if (!jwtService.isStatelessTokens() || !token.isStateless()) {
+            return this.principalCache.load(userEmail);
+        }
+        boolean revoked = tokenRevocationRegistry.isRevoked(token.getUserId(), token.getTokenVersion());
+        return new AuthenticatedUser(
+                token.getUserId(),
+                userEmail,
+                token.getRoles().stream().map(SimpleGrantedAuthority::new).toList(),
+                true,
+                !revoked,
+                true,
+                true
+        );
+    }
 }
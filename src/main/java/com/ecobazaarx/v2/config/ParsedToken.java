@@ -0,0 +1,27 @@
+package com.ecobazaarx.v2.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+// Result of verifying a JWT once: everything the filter needs without re-parsing.
+@Getter
+@RequiredArgsConstructor
+public class ParsedToken {
+    private final String subject;
+    private final Date expiration;
+    private final List<String> roles;
+    // Only present on stateless tokens
+    private final Long userId;
+    private final Integer tokenVersion;
+
+    public boolean isStateless() {
+        return userId != null;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
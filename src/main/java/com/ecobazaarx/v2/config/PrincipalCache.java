@@ -0,0 +1,52 @@
+package com.ecobazaarx.v2.config;
+
+import com.ecobazaarx.v2.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Bounded cache of authenticated principals keyed by email, so the JWT filter
+// does not have to hit users_tb on every request.
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public PrincipalCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${application.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${application.security.principal-cache.expire-after-write:300000}") long expireAfterWrite
+    ) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public AuthenticatedUser load(String email) {
+        return cache.get(email, key -> userRepository.findByEmail(key)
+                .map(AuthenticatedUser::from)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + key)));
+    }
+
+    // Evicting before commit would let a concurrent request re-cache the old row,
+    // so inside a transaction we wait for the commit.
+    public void evictAfterCommit(String... emails) {
+        List<String> keys = Arrays.stream(emails).filter(Objects::nonNull).toList();
+        AfterCommit.run(() -> cache.invalidateAll(keys));
+    }
+}
@@ -0,0 +1,83 @@
+package com.ecobazaarx.v2.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Per-endpoint SQL statement counts and JDBC time, plus a slow-request log that
+// lists the statements. Latency histograms come from http.server.requests (see MetricsConfig).
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${application.monitoring.slow-request-threshold:1000}")
+    private long slowRequestThresholdMillis;
+
+    @Value("${application.monitoring.max-logged-statements:50}")
+    private int maxLoggedStatements;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestQueryStats stats = RequestQueryStats.begin(maxLoggedStatements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            record(request, response, stats, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestQueryStats stats, long elapsedNanos) {
+        // Use the route pattern, not the raw path, to keep tag cardinality bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("http.server.requests.sql.count")
+                .description("JDBC statements per request")
+                .tags("method", method, "uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(stats.getCount());
+        Timer.builder("http.server.requests.sql.time")
+                .description("Time spent in JDBC per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (elapsedMillis >= slowRequestThresholdMillis) {
+            log.warn("Slow request {} {} -> {} in {} ms, {} statements ({} ms in JDBC):\n  {}",
+                    method, request.getRequestURI(), response.getStatus(), elapsedMillis,
+                    stats.getCount(), TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos()),
+                    String.join("\n  ", stats.getStatements()));
+        }
+    }
+}
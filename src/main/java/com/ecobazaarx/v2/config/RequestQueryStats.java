@@ -0,0 +1,59 @@
+package com.ecobazaarx.v2.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// JDBC statements issued by the current request thread. Work handed off to
+// other threads (async tasks, the hashing pool) is not attributed to the request.
+public class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final int maxRecordedStatements;
+    private final List<String> statements = new ArrayList<>();
+    private int count;
+    private long elapsedNanos;
+
+    private RequestQueryStats(int maxRecordedStatements) {
+        this.maxRecordedStatements = maxRecordedStatements;
+    }
+
+    public static RequestQueryStats begin(int maxRecordedStatements) {
+        RequestQueryStats stats = new RequestQueryStats(maxRecordedStatements);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // Null outside an instrumented request (startup, scheduled jobs)
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public void record(List<String> queries, long elapsedNanos) {
+        this.count += queries.size();
+        this.elapsedNanos += elapsedNanos;
+        for (String query : queries) {
+            if (statements.size() >= maxRecordedStatements) {
+                break;
+            }
+            statements.add(query);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+}
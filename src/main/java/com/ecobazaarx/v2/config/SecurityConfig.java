@@ -1,5 +1,6 @@
 package com.ecobazaarx.v2.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +37,10 @@ public class SecurityConfig {
                         // --- 1. CORE PUBLIC & OPTIONS ACCESS ---
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
+                        // lets status codes like 503 from public endpoints reach the client
+                        .requestMatchers("/error").permitAll()
+                        // the original request of a streamed response was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/leaderboard/**").permitAll()
 
@@ -60,6 +65,7 @@ public class SecurityConfig {
                                 "/api/v1/admin/transport-zones"
                         ).hasAnyRole("ADMIN", "SELLER") // <--- Allows Sellers to read these 5 lists
                         .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // --- 5. FALLBACK ---
                         .anyRequest().authenticated()
                 )
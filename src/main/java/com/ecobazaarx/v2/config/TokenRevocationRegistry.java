@@ -0,0 +1,43 @@
+package com.ecobazaarx.v2.config;
+
+import com.ecobazaarx.v2.model.User;
+import com.ecobazaarx.v2.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory table of the minimum token version each user must present.
+// Only users that have ever been revoked are tracked, so it stays small.
+// Note: this is per instance; a multi-node deployment needs a shared store.
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationRegistry {
+
+    private final UserRepository userRepository;
+    private final Map<Long, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        for (Object[] row : userRepository.findRevokedTokenVersions()) {
+            minimumVersions.merge((Long) row[0], (Integer) row[1], Math::max);
+        }
+    }
+
+    public boolean isRevoked(Long userId, Integer tokenVersion) {
+        Integer minimum = minimumVersions.get(userId);
+        return minimum != null && (tokenVersion == null || tokenVersion < minimum);
+    }
+
+    // Bumps the user's version; the in-memory table follows once the change is committed.
+    public void revoke(User user) {
+        int newVersion = user.getTokenVersion() + 1;
+        user.setTokenVersion(newVersion);
+
+        Long userId = user.getId();
+        AfterCommit.run(() -> minimumVersions.merge(userId, newVersion, Math::max));
+    }
+}
@@ -5,16 +5,25 @@ import com.ecobazaarx.v2.model.*;
 import com.ecobazaarx.v2.service.AdminService;
 import com.ecobazaarx.v2.service.OrderHistoryService;
 import com.ecobazaarx.v2.service.ProductService;
+import com.ecobazaarx.v2.service.ProductSortField;
+import com.ecobazaarx.v2.service.UserImportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize; // <-- MUST BE HERE
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -28,6 +37,8 @@ public class AdminController {
     private final AdminService adminService;
     private final ProductService productService;
     private final OrderHistoryService orderHistoryService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     /*----------- Seller requests -----------*/
     @GetMapping("/seller-applications")
@@ -226,6 +237,13 @@ public class AdminController {
         return new ResponseEntity<>(newAdmin, HttpStatus.CREATED);
     }
 
+    // Body is streamed: text/csv with a name,email,password[,referralCode] header, or one JSON object per line
+    @PostMapping(value = "/users/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserImportResponse> importUsers(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), request.getContentType()));
+    }
+
     /*----------- Products -----------*/
     @GetMapping("/products")
     @PreAuthorize("hasRole('ADMIN')") // <-- ADDED SECURITY BACK
@@ -234,14 +252,39 @@ public class AdminController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id,desc") String[] sort
     ) {
-        String sortField = sort[0];
-        Sort.Direction sortDirection = (sort.length > 1 && sort[1].equalsIgnoreCase("asc")) ?
-                Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortField));
+        Pageable pageable = PageRequest.of(page, size, ProductSortField.toSort(sort));
 
         return ResponseEntity.ok(productService.getAllProductsAsAdmin(pageable));
     }
 
+    // Same listing as NDJSON (one product per line, no page metadata), selected with
+    // Accept: application/x-ndjson. Rows are written as they are read from the database.
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,desc") String[] sort
+    ) {
+        Pageable pageable = PageRequest.of(page, size, ProductSortField.toSort(sort));
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                productService.streamAllProductsAsAdmin(pageable, product -> {
+                    try {
+                        objectMapper.writeValue(generator, product);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /*----------- Orders -----------*/
     @GetMapping("/orders")
     @PreAuthorize("hasRole('ADMIN')") // <-- ADDED SECURITY BACK
@@ -3,6 +3,7 @@ package com.ecobazaarx.v2.controller;
 import com.ecobazaarx.v2.dto.*;
 import com.ecobazaarx.v2.model.Cart;
 import com.ecobazaarx.v2.service.CartService;
+import com.ecobazaarx.v2.service.CartWriteBehindStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,16 +20,28 @@ import java.util.List;
 public class CartController {
 
     private final CartService cartService;
+    private final CartWriteBehindStore cartWriteBehindStore;
 
     @PostMapping("/add")
     public ResponseEntity<CartResponse> addProductToCart(
             @RequestBody AddToCartRequest request,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
+        cartWriteBehindStore.flush(currentUser);
         CartResponse updatedCart = cartService.addProductToCart(request, currentUser);
         return ResponseEntity.ok(updatedCart);
     }
 
+    // Several add/set/remove lines in one request, e.g. restoring a saved cart or "buy again"
+    @PatchMapping
+    public ResponseEntity<CartResponse> applyCartOperations(
+            @RequestBody CartBatchRequest request,
+            @AuthenticationPrincipal UserDetails currentUser
+    ) {
+        cartWriteBehindStore.flush(currentUser);
+        return ResponseEntity.ok(cartService.applyCartOperations(request.getOperations(), currentUser));
+    }
+
     @GetMapping
     public ResponseEntity<CartResponse> getMyCart(
             @AuthenticationPrincipal UserDetails currentUser
@@ -51,6 +64,7 @@ public class CartController {
             @PathVariable("itemId") Long cartItemId,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
+        cartWriteBehindStore.flush(currentUser);
         CartResponse cart = cartService.removeProductFromCart(cartItemId, currentUser);
         return ResponseEntity.ok(cart);
     }
@@ -60,6 +74,7 @@ public class CartController {
             @RequestBody ApplyDiscountRequest request,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
+        cartWriteBehindStore.flush(currentUser);
         CartResponse cart = cartService.applyDiscount(request.getDiscountCode(), currentUser);
         return ResponseEntity.ok(cart);
     }
@@ -82,6 +97,7 @@ public class CartController {
             @RequestBody SelectShippingRequest request,
             @AuthenticationPrincipal UserDetails currentUser
     ) {
+        cartWriteBehindStore.flush(currentUser);
         return ResponseEntity.ok(cartService.selectShippingOption(request, currentUser));
     }
 }
@@ -2,6 +2,7 @@ package com.ecobazaarx.v2.controller;
 
 import com.ecobazaarx.v2.dto.CheckoutRequest;
 import com.ecobazaarx.v2.dto.CheckoutResponse;
+import com.ecobazaarx.v2.service.CartWriteBehindStore;
 import com.ecobazaarx.v2.service.CheckoutService;
 import com.stripe.exception.StripeException;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class CheckoutController {
 
     private final CheckoutService checkoutService;
+    private final CartWriteBehindStore cartWriteBehindStore;
 
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER')")
@@ -27,6 +29,8 @@ public class CheckoutController {
             @RequestBody CheckoutRequest request,
             @AuthenticationPrincipal UserDetails currentUser
     ) throws StripeException {
+        // Buffered cart quantities are written before checkout's transaction starts
+        cartWriteBehindStore.flush(currentUser);
         CheckoutResponse response = checkoutService.placeOrder(request, currentUser);
         return ResponseEntity.ok(response);
     }
@@ -1,24 +1,31 @@
 package com.ecobazaarx.v2.controller;
 
+import com.ecobazaarx.v2.dto.ProductBatchResponse;
 import com.ecobazaarx.v2.dto.ProductResponseDto;
+import com.ecobazaarx.v2.dto.ProductSearchResponse;
+import com.ecobazaarx.v2.dto.ProductSliceResponse;
 import com.ecobazaarx.v2.dto.ReviewRequest;
 import com.ecobazaarx.v2.dto.ReviewResponse;
 import com.ecobazaarx.v2.service.ProductService;
+import com.ecobazaarx.v2.service.ProductSortField;
 import com.ecobazaarx.v2.service.ReviewService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -32,42 +39,72 @@ public class ProductController {
     public ResponseEntity<Page<ProductResponseDto>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id,desc") String[] sort
+            @RequestParam(defaultValue = "id,desc") String[] sort,
+            WebRequest request
     ) {
-        String sortField = sort[0];
-        Sort.Direction sortDirection = (sort.length > 1 && sort[1].equalsIgnoreCase("asc")) ?
-                Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, ProductSortField.toSort(sort));
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortField));
+        return conditional(request, productService.getCatalogETag(), () -> productService.getAllProducts(pageable));
+    }
+
+    // Multi-get for carts, wishlists and order histories: GET /api/v1/products?ids=3,1,2
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids, WebRequest request) {
+        return conditional(request, productService.getCatalogETag(), () -> productService.getProductsByIds(ids));
+    }
+
+    // Cursor-based listing: no COUNT query, and the cost stays flat however deep the client scrolls
+    @GetMapping("/scroll")
+    public ResponseEntity<ProductSliceResponse> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,desc") String[] sort,
+            WebRequest request
+    ) {
+        Sort.Order order = ProductSortField.toOrder(sort);
 
-        return ResponseEntity.ok(productService.getAllProducts(pageable));
+        return conditional(request, productService.getCatalogETag(), () -> productService.scrollProducts(order, cursor, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductResponseDto> getProductById(@PathVariable Long id, WebRequest request) {
+        return conditional(request, productService.getProductETag(id), () -> productService.getProductById(id));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<ProductResponseDto>> searchProducts(
+    public ResponseEntity<ProductSearchResponse> searchProducts(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) Integer categoryId,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id,desc") String[] sort
+            @RequestParam(defaultValue = "id,desc") String[] sort,
+            WebRequest request
     ) {
-        String sortField = sort[0];
-        Sort.Direction sortDirection = (sort.length > 1 && sort[1].equalsIgnoreCase("asc")) ?
-                Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortField));
+        Pageable pageable = PageRequest.of(page, size, ProductSortField.toSort(sort));
 
-        Page<ProductResponseDto> results = productService.searchProducts(
+        return conditional(request, productService.getCatalogETag(), () -> productService.searchProducts(
                 query, categoryId, minPrice, maxPrice, pageable
-        );
+        ));
+    }
+
+    @GetMapping("/search/scroll")
+    public ResponseEntity<ProductSliceResponse> scrollSearch(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,desc") String[] sort,
+            WebRequest request
+    ) {
+        Sort.Order order = ProductSortField.toOrder(sort);
 
-        return ResponseEntity.ok(results);
+        return conditional(request, productService.getCatalogETag(), () -> productService.scrollSearch(
+                query, categoryId, minPrice, maxPrice, order, cursor, size
+        ));
     }
 
     @PostMapping("/{id}/reviews")
@@ -92,7 +129,23 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/related")
-    public ResponseEntity<List<ProductResponseDto>> getRelatedProducts(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getRelatedProducts(id));
+    public ResponseEntity<List<ProductResponseDto>> getRelatedProducts(@PathVariable Long id, WebRequest request) {
+        return conditional(request, productService.getCatalogETag(), () -> productService.getRelatedProducts(id));
+    }
+
+    // The ETag is read before the body is built, so a concurrent change can only make it older
+    // than the body (the next revalidation then misses), never newer.
+    // no-cache: clients may store the response but must revalidate it on every use.
+    private <T> ResponseEntity<T> conditional(WebRequest request, String eTag, Supplier<T> body) {
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
     }
 }
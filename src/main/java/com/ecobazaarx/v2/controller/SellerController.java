@@ -4,6 +4,7 @@ import com.ecobazaarx.v2.dto.*;
 import com.ecobazaarx.v2.model.SellerApplicationStatus;
 import com.ecobazaarx.v2.service.OrderHistoryService;
 import com.ecobazaarx.v2.service.ProductService;
+import com.ecobazaarx.v2.service.ProductSortField;
 import com.ecobazaarx.v2.service.SellerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -67,14 +68,24 @@ public class SellerController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id,desc") String[] sort
     ) {
-        String sortField = sort[0];
-        Sort.Direction sortDirection = (sort.length > 1 && sort[1].equalsIgnoreCase("asc")) ?
-                Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortField));
+        Pageable pageable = PageRequest.of(page, size, ProductSortField.toSort(sort));
 
         return ResponseEntity.ok(productService.getProductsBySeller(sellerDetails, pageable));
     }
 
+    @GetMapping("/products/scroll")
+    @PreAuthorize("hasRole('SELLER')")
+    public ResponseEntity<ProductSliceResponse> scrollMyProducts(
+            @AuthenticationPrincipal UserDetails sellerDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,desc") String[] sort
+    ) {
+        Sort.Order order = ProductSortField.toOrder(sort);
+
+        return ResponseEntity.ok(productService.scrollProductsBySeller(sellerDetails, order, cursor, size));
+    }
+
     @PutMapping("/products/{id}")
     @PreAuthorize("hasRole('SELLER')")
     public ResponseEntity<ProductResponseDto> updateMyProduct(
@@ -0,0 +1,10 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+    private List<CartOperation> operations;
+}
@@ -0,0 +1,16 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Data;
+
+// One line of a batch cart change. ADD adds quantity to the product's line,
+// SET makes it exactly quantity (0 removes it), REMOVE drops the line.
+@Data
+public class CartOperation {
+    private Type type;
+    private Long productId;
+    private int quantity;
+
+    public enum Type {
+        ADD, SET, REMOVE
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 public class CartResponse {
     private Long cartId;
     private List<CartItemResponse> items;
+    private int itemCount;
     private BigDecimal productsTotalAmount;
     private BigDecimal productsTotalCarbon;
     private DiscountResponse appliedDiscount;
@@ -0,0 +1,15 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetCount {
+    // Category id, or the inclusive lower bound of a range bucket
+    private String value;
+    private String label;
+    private long count;
+}
@@ -0,0 +1,14 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// Products in request order; ids that don't exist are listed in missingIds instead
+@Data
+@Builder
+public class ProductBatchResponse {
+    private List<ProductResponseDto> products;
+    private List<Long> missingIds;
+}
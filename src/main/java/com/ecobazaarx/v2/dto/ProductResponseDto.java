@@ -1,12 +1,14 @@
 package com.ecobazaarx.v2.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
 
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@AllArgsConstructor // used by the JPQL constructor projection in ProductRepository
 public class ProductResponseDto {
     private Long id;
     private String name;
@@ -0,0 +1,15 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProductSearchFacets {
+    private List<FacetCount> categories;
+    private List<FacetCount> priceRanges;
+    private List<FacetCount> carbonRanges;
+    private List<FacetCount> ecoPointRanges;
+}
@@ -0,0 +1,22 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// Same paging fields clients already read from Spring's Page, plus facet counts
+@Data
+@Builder
+public class ProductSearchResponse {
+    private List<ProductResponseDto> content;
+    private long totalElements;
+    private int totalPages;
+    private int number;
+    private int size;
+    private int numberOfElements;
+    private boolean first;
+    private boolean last;
+    private boolean empty;
+    private ProductSearchFacets facets;
+}
@@ -0,0 +1,16 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of a cursor-paginated listing; pass nextCursor back to get the following page
+@Data
+@Builder
+public class ProductSliceResponse {
+    private List<ProductResponseDto> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,14 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportError {
+    private int rowNumber;
+    private String email;
+    private String message;
+}
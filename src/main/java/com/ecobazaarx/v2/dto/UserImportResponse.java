@@ -0,0 +1,15 @@
+package com.ecobazaarx.v2.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserImportResponse {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<UserImportError> errors;
+}
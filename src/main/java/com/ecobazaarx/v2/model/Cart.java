@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -38,6 +39,21 @@ public class Cart {
     @JoinColumn(name = "transport_zone_id")
     private TransportZone selectedTransportZone;
 
+    // Running item totals, adjusted by CartService on every item change so reads don't re-sum items.
+    // The column default is true so carts created before these columns existed get recomputed once.
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int itemCount = 0;
+
+    @Column(nullable = false, precision = 14, scale = 2, columnDefinition = "decimal(14,2) default 0.0")
+    private BigDecimal productsTotalAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 2, columnDefinition = "decimal(14,2) default 0.0")
+    private BigDecimal productsTotalCarbon = BigDecimal.ZERO;
+
+    // Set when a product in the cart changes price; the next read recomputes from the items
+    @Column(nullable = false, columnDefinition = "boolean default true")
+    private boolean totalsStale = false;
+
     public Cart(User user) {
         this.user = user;
     }
@@ -12,7 +12,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+// One index per sortable listing field (see ProductSortField); active listings filter on is_archived
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_archived_price", columnList = "is_archived, price"),
+        @Index(name = "idx_products_archived_created_at", columnList = "is_archived, created_at"),
+        @Index(name = "idx_products_archived_rating", columnList = "is_archived, average_rating"),
+        @Index(name = "idx_products_archived_footprint", columnList = "is_archived, cradle_to_warehouse_footprint"),
+        @Index(name = "idx_products_archived_eco_points", columnList = "is_archived, eco_points")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -60,6 +67,11 @@ public class Product {
     @Column(nullable = false, columnDefinition = "boolean default false")
     private boolean featured = false;
 
+    // Bumped on every update and used for ETags; deliberately not @Version, so concurrent
+    // stock decrements keep their current last-write behaviour instead of failing
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version = 0;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id", nullable = false)
     private User seller;
@@ -88,4 +100,9 @@ public class Product {
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ProductPackaging> packaging = new HashSet<>();
+
+    @PreUpdate
+    void incrementVersion() {
+        version++;
+    }
 }
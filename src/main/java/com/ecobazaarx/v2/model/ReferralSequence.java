@@ -0,0 +1,28 @@
+package com.ecobazaarx.v2.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Single-row counter handed out to app instances in blocks for referral codes
+@Entity
+@Table(name = "referral_sequence")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReferralSequence {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long nextValue;
+
+    public ReferralSequence(Long id, Long nextValue) {
+        this.id = id;
+        this.nextValue = nextValue;
+    }
+}
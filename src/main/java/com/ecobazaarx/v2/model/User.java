@@ -90,6 +90,10 @@ public class User implements UserDetails {
     @Column(nullable = false, columnDefinition = "boolean default true")
     private boolean isEnabled = true;
 
+    // Bumped whenever outstanding stateless JWTs for this user must stop working.
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer tokenVersion = 0;
+
     @Column(length = 100)
     private String storeName;
 
@@ -119,6 +123,7 @@ public class User implements UserDetails {
         this.isAccountNonLocked = true;
         this.isCredentialsNonExpired = true;
         this.isEnabled = true;
+        this.tokenVersion = 0;
     }
 
     @Override
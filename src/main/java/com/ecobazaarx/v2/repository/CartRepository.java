@@ -1,7 +1,10 @@
 package com.ecobazaarx.v2.repository;
 
 import com.ecobazaarx.v2.model.Cart;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,10 +16,29 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUserId(Long userId);
 
+    // Serializes changes to one cart, so concurrent requests can't lose each other's total deltas.
+    // Only the cart and its own items are joined, so no shared rows (products, discounts) get locked.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.user.id = :userId")
+    Optional<Cart> findByUserIdForUpdate(@Param("userId") Long userId);
+
+    // Locked cart with everything mapToCartResponse reads: two statements whatever the item count
+    default Optional<Cart> lockByUserIdWithItems(Long userId) {
+        return findByUserIdForUpdate(userId).flatMap(cart -> findByUserIdWithItems(userId));
+    }
+
     @Query("SELECT c FROM Cart c " +
             "LEFT JOIN FETCH c.items i " +
             "LEFT JOIN FETCH i.product " +
+            "LEFT JOIN FETCH c.appliedDiscount " +
+            "LEFT JOIN FETCH c.shippingAddress " +
+            "LEFT JOIN FETCH c.selectedTransportZone " +
             "WHERE c.user.id = :userId")
     Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
 
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalsStale = true " +
+            "WHERE c.id IN (SELECT i.cart.id FROM CartItem i WHERE i.product.id = :productId)")
+    int markTotalsStaleForProduct(@Param("productId") Long productId);
+
 }
@@ -2,13 +2,18 @@ package com.ecobazaarx.v2.repository;
 
 import com.ecobazaarx.v2.model.OrderItem;
 import com.ecobazaarx.v2.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -30,4 +35,11 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
             "GROUP BY oi.product " +
             "ORDER BY SUM(oi.quantity) DESC")
     List<Product> findTopSellingProductsGlobal(Pageable pageable);
+
+    // (order id, product id) pairs for co-purchase counting; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi " +
+            "WHERE oi.order.orderDate >= :since " +
+            "ORDER BY oi.order.id")
+    Stream<Object[]> streamOrderProductsSince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
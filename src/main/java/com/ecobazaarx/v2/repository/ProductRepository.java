@@ -1,16 +1,23 @@
 package com.ecobazaarx.v2.repository;
 
+import com.ecobazaarx.v2.dto.ProductResponseDto;
 import com.ecobazaarx.v2.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
@@ -27,4 +34,33 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     List<Product> findByOrderByCradleToWarehouseFootprintAsc(Pageable pageable);
     List<Product> findByOrderByEcoPointsDesc(Pageable pageable);
     List<Product> findByCategoryIdAndIdNot(Integer categoryId, Long productId, Pageable pageable);
+
+    // Read model for product lists: category, seller and zone come from joins in this one query
+    // instead of a lazy load per product. Order is not preserved; callers reorder by id.
+    @Query("SELECT new com.ecobazaarx.v2.dto.ProductResponseDto(" +
+            "p.id, p.name, p.description, p.price, p.imageUrl, p.stockQuantity, c.name, c.id, " +
+            "s.storeName, p.cradleToWarehouseFootprint, p.ecoPoints, p.isArchived, z.id) " +
+            "FROM Product p JOIN p.category c JOIN p.seller s JOIN p.transportZone z " +
+            "WHERE p.id IN :ids")
+    List<ProductResponseDto> findResponseDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Same projection, read row by row for streamed exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.ecobazaarx.v2.dto.ProductResponseDto(" +
+            "p.id, p.name, p.description, p.price, p.imageUrl, p.stockQuantity, c.name, c.id, " +
+            "s.storeName, p.cradleToWarehouseFootprint, p.ecoPoints, p.isArchived, z.id) " +
+            "FROM Product p JOIN p.category c JOIN p.seller s JOIN p.transportZone z")
+    Stream<ProductResponseDto> streamResponseDtos(Pageable pageable);
+
+    // Input for the related products index, newest first
+    @Query("SELECT p.id, p.category.id FROM Product p WHERE p.isArchived = false ORDER BY p.id DESC")
+    List<Object[]> findActiveProductCategories();
+
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Fields needed to build the in-memory search index and its facets
+    @Query("SELECT p.id, p.name, p.description, c.id, c.name, p.price, p.cradleToWarehouseFootprint, p.ecoPoints " +
+            "FROM Product p JOIN p.category c WHERE p.isArchived = false")
+    List<Object[]> findSearchDocuments();
 }
@@ -0,0 +1,19 @@
+package com.ecobazaarx.v2.repository;
+
+import com.ecobazaarx.v2.model.ReferralSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReferralSequenceRepository extends JpaRepository<ReferralSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ReferralSequence s WHERE s.id = :id")
+    Optional<ReferralSequence> findByIdForUpdate(@Param("id") Long id);
+}
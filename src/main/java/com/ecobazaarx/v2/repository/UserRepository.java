@@ -7,9 +7,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,6 +45,23 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
             ")")
     Page<User> findPureCustomers(Pageable pageable);
 
+    // id / tokenVersion pairs for users whose older tokens have been revoked
+    @Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
+
+    // used when a stored hash is upgraded on login
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    // bulk import: one query per batch instead of one per row
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.referralCode, u.id FROM User u WHERE u.referralCode IN :codes")
+    List<Object[]> findIdsByReferralCodes(@Param("codes") Collection<String> codes);
+
     boolean existsByReferralCode(String referralCode);
     Optional<User> findByReferralCode(String referralCode);
 }
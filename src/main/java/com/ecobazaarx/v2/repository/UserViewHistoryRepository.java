@@ -2,15 +2,19 @@ package com.ecobazaarx.v2.repository;
 
 import com.ecobazaarx.v2.model.Product;
 import com.ecobazaarx.v2.model.UserViewHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserViewHistoryRepository extends JpaRepository<UserViewHistory, Long> {
@@ -22,4 +26,11 @@ public interface UserViewHistoryRepository extends JpaRepository<UserViewHistory
             "GROUP BY h.product " +
             "ORDER BY MAX(h.viewedAt) DESC")
     List<Product> findRecentlyViewedProductsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // (user id, product id) pairs, each user's views newest first; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT h.user.id, h.product.id FROM UserViewHistory h " +
+            "WHERE h.viewedAt >= :since " +
+            "ORDER BY h.user.id, h.viewedAt DESC")
+    Stream<Object[]> streamViewedProductsSince(@Param("since") LocalDateTime since);
 }
@@ -4,7 +4,6 @@ import com.ecobazaarx.v2.dto.AddressDto;
 import com.ecobazaarx.v2.model.Address;
 import com.ecobazaarx.v2.model.User;
 import com.ecobazaarx.v2.repository.AddressRepository;
-import com.ecobazaarx.v2.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
@@ -20,12 +19,12 @@ import java.util.stream.Collectors;
 public class AddressService {
 
     private final AddressRepository addressRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
     @Transactional(readOnly = true)
     public List<AddressDto> getMyAddresses(UserDetails currentUser) {
-        User user = findUserByEmail(currentUser.getUsername());
-        return addressRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(currentUser);
+        return addressRepository.findByUserId(userId)
                 .stream()
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
@@ -33,18 +32,18 @@ public class AddressService {
 
     @Transactional(readOnly = true)
     public AddressDto getAddressById(UserDetails currentUser, Long addressId) {
-        User user = findUserByEmail(currentUser.getUsername());
+        Long userId = currentUserService.getUserId(currentUser);
         Address address = findAddressById(addressId);
-        checkOwnership(user, address);
+        checkOwnership(userId, address);
         return mapToDto(address);
     }
 
     @Transactional
     public AddressDto createAddress(UserDetails currentUser, AddressDto dto) {
-        User user = findUserByEmail(currentUser.getUsername());
+        User user = currentUserService.getUserReference(currentUser);
 
         if (dto.isDefault()) {
-            unsetOtherDefaults(user);
+            unsetOtherDefaults(user.getId());
         }
 
         Address address = new Address();
@@ -57,12 +56,12 @@ public class AddressService {
 
     @Transactional
     public AddressDto updateAddress(UserDetails currentUser, Long addressId, AddressDto dto) {
-        User user = findUserByEmail(currentUser.getUsername());
+        Long userId = currentUserService.getUserId(currentUser);
         Address address = findAddressById(addressId);
-        checkOwnership(user, address);
+        checkOwnership(userId, address);
 
         if (dto.isDefault()) {
-            unsetOtherDefaults(user);
+            unsetOtherDefaults(userId);
         }
 
         mapToEntity(dto, address);
@@ -72,30 +71,25 @@ public class AddressService {
 
     @Transactional
     public void deleteAddress(UserDetails currentUser, Long addressId) {
-        User user = findUserByEmail(currentUser.getUsername());
+        Long userId = currentUserService.getUserId(currentUser);
         Address address = findAddressById(addressId);
-        checkOwnership(user, address);
+        checkOwnership(userId, address);
         addressRepository.delete(address);
     }
 
-    private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-    }
-
     private Address findAddressById(Long id) {
         return addressRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Address not found"));
     }
 
-    private void checkOwnership(User user, Address address) {
-        if (!address.getUser().getId().equals(user.getId())) {
+    private void checkOwnership(Long userId, Address address) {
+        if (!address.getUser().getId().equals(userId)) {
             throw new AccessDeniedException("You do not have permission to access this address");
         }
     }
 
-    private void unsetOtherDefaults(User user) {
-        addressRepository.findByUserId(user.getId()).forEach(addr -> {
+    private void unsetOtherDefaults(Long userId) {
+        addressRepository.findByUserId(userId).forEach(addr -> {
             if (addr.isDefault()) {
                 addr.setDefault(false);
                 addressRepository.save(addr);
@@ -1,5 +1,7 @@
 package com.ecobazaarx.v2.service;
 
+import com.ecobazaarx.v2.config.PrincipalCache;
+import com.ecobazaarx.v2.config.TokenRevocationRegistry;
 import com.ecobazaarx.v2.dto.AdminCreateRequest;
 import com.ecobazaarx.v2.dto.AdminUserResponseDto;
 import com.ecobazaarx.v2.dto.AdminUserUpdateRequest;
@@ -36,7 +38,11 @@ public class AdminService {
     private final PasswordEncoder passwordEncoder;
     private final TaxRateRepository taxRateRepository;
     private final DiscountRepository discountRepository;
-
+    private final PrincipalCache principalCache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductDetailCache productDetailCache;
+    private final PricingReferenceCache pricingReferenceCache;
 
     @Transactional(readOnly = true)
     public List<ProfileResponse> getPendingSellerApplications() {
@@ -61,6 +67,7 @@ public class AdminService {
         user.getRoles().add(sellerRole);
 
         userRepository.save(user);
+        principalCache.evictAfterCommit(user.getEmail());
         return profileService.mapUserToProfileResponse(user);
     }
 
@@ -115,6 +122,13 @@ public class AdminService {
     @Transactional
     public AdminUserResponseDto updateUserAsAdmin(Long userId, AdminUserUpdateRequest request) {
         User user = findUserById(userId);
+        String previousEmail = user.getEmail();
+        Set<RoleName> previousRoles = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet());
+        boolean accessReduced = (user.isAccountNonLocked() && !request.isAccountNonLocked())
+                || (user.isEnabled() && !request.isEnabled())
+                || !previousEmail.equals(request.getEmail());
 
         user.setName(request.getName());
         user.setEmail(request.getEmail());
@@ -127,9 +141,15 @@ public class AdminService {
                             .orElseThrow(() -> new EntityNotFoundException("Role " + roleName + " not found")))
                     .collect(Collectors.toSet());
             user.setRoles(newRoles);
+            accessReduced |= !request.getRoles().equals(previousRoles);
+        }
+
+        if (accessReduced) {
+            tokenRevocationRegistry.revoke(user);
         }
 
         User updatedUser = userRepository.save(user);
+        principalCache.evictAfterCommit(previousEmail, updatedUser.getEmail());
         return mapUserToAdminResponseDto(updatedUser);
     }
 
@@ -164,7 +184,9 @@ public class AdminService {
 
     /*----------- Tax Rate -----------*/
     public TaxRate createTaxRate(TaxRate taxRate) {
-        return taxRateRepository.save(taxRate);
+        TaxRate saved = taxRateRepository.save(taxRate);
+        pricingReferenceCache.reloadAfterCommit();
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -179,11 +201,14 @@ public class AdminService {
         entity.setRate(details.getRate());
         entity.setCountry(details.getCountry());
         entity.setState(details.getState());
-        return taxRateRepository.save(entity);
+        TaxRate saved = taxRateRepository.save(entity);
+        pricingReferenceCache.reloadAfterCommit();
+        return saved;
     }
 
     public void deleteTaxRate(Long id) {
         taxRateRepository.deleteById(id);
+        pricingReferenceCache.reloadAfterCommit();
     }
 
     /*----------- Discount -----------*/
@@ -235,7 +260,11 @@ public class AdminService {
                 .orElseThrow(() -> new EntityNotFoundException("Category not found"));
         entity.setName(details.getName());
         entity.setDescription(details.getDescription());
-        return categoryRepository.save(entity);
+        Category saved = categoryRepository.save(entity);
+        // Category names are indexed on every product; renames are rare, so rebuild
+        productSearchIndex.rebuild();
+        productDetailCache.evictAllAfterCommit();
+        return saved;
     }
 
     public void deleteCategory(Integer id) {
@@ -311,7 +340,9 @@ public class AdminService {
 
     /*----------- Transport Zone -----------*/
     public TransportZone createTransportZone(TransportZone zone) {
-        return transportZoneRepository.save(zone);
+        TransportZone saved = transportZoneRepository.save(zone);
+        pricingReferenceCache.reloadAfterCommit();
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -328,7 +359,9 @@ public class AdminService {
         existingZone.setFlatCarbonFootprint(zoneDetails.getFlatCarbonFootprint());
         existingZone.setCost(zoneDetails.getCost());
 
-        return transportZoneRepository.save(existingZone);
+        TransportZone saved = transportZoneRepository.save(existingZone);
+        pricingReferenceCache.reloadAfterCommit();
+        return saved;
     }
 
     @Transactional
@@ -337,6 +370,7 @@ public class AdminService {
             throw new EntityNotFoundException("TransportZone not found with id: " + id);
         }
         transportZoneRepository.deleteById(id);
+        pricingReferenceCache.reloadAfterCommit();
     }
 
 
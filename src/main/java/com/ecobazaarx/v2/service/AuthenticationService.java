@@ -13,13 +13,13 @@ import com.ecobazaarx.v2.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +30,7 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ReferralCodeGenerator referralCodeGenerator;
 
     @Transactional
     public AuthenticationResponse register(RegisterRequest request) {
@@ -51,10 +52,13 @@ public class AuthenticationService {
         user.setEcoPoints(0);
         user.setRankLevel(0);
 
-        user.setReferralCode(generateUniqueReferralCode());
+        user.setReferralCode(referralCodeGenerator.nextCode());
 
         if (request.getReferralCode() != null && !request.getReferralCode().isBlank()) {
-            Optional<User> referrerOpt = userRepository.findByReferralCode(request.getReferralCode().toUpperCase());
+            String referralCode = request.getReferralCode().trim().toUpperCase();
+            Optional<User> referrerOpt = referralCodeGenerator.isPlausible(referralCode)
+                    ? userRepository.findByReferralCode(referralCode)
+                    : Optional.empty();
             if (referrerOpt.isPresent()) {
                 user.setReferrer(referrerOpt.get());
             }
@@ -65,38 +69,26 @@ public class AuthenticationService {
 
         userRepository.save(user);
 
-        var jwtToken = jwtService.generateToken(user);
+        var jwtToken = jwtService.generateAccessToken(user);
         return AuthenticationResponse.builder()
                 .accessToken(jwtToken)
                 .build();
     }
 
     public AuthenticationResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
         );
 
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found after authentication"));
+        // The provider already loaded the user; no need to query it again
+        var user = (User) authentication.getPrincipal();
 
-        var jwtToken = jwtService.generateToken(user);
+        var jwtToken = jwtService.generateAccessToken(user);
         return AuthenticationResponse.builder()
                 .accessToken(jwtToken)
                 .build();
     }
-
-    private String generateUniqueReferralCode() {
-        String code;
-        do {
-            code = UUID.randomUUID().toString()
-                    .replaceAll("-", "")
-                    .substring(0, 8)
-                    .toUpperCase();
-        } while (userRepository.existsByReferralCode(code));
-
-        return code;
-    }
 }
\ No newline at end of file
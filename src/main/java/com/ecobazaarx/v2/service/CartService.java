@@ -5,16 +5,26 @@ import com.ecobazaarx.v2.model.*;
 import com.ecobazaarx.v2.repository.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,18 +34,22 @@ public class CartService {
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final DiscountRepository discountRepository;
     private final AddressRepository addressRepository;
     private final TransportZoneRepository transportZoneRepository;
-    private final TaxRateRepository taxRateRepository;
+    private final PricingReferenceCache pricingReferenceCache;
+    private final CartWriteBehindStore cartWriteBehindStore;
+
+    @Value("${application.cart.batch.max-operations:100}")
+    private int maxBatchOperations;
     private static final String WAREHOUSE_STATE = "Jharkhand";
     private static final String WAREHOUSE_CITY = "Ranchi";
 
     @Transactional
     public CartResponse addProductToCart(AddToCartRequest request, UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(userDetails);
+        Cart cart = cartRepository.lockByUserIdWithItems(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found for user"));
 
         Product product = productRepository.findById(request.getProductId())
@@ -45,8 +59,9 @@ public class CartService {
             throw new IllegalArgumentException("Not enough stock for product: " + product.getName());
         }
 
-        Optional<CartItem> existingItemOpt = cartItemRepository
-                .findByCartIdAndProductId(cart.getId(), product.getId());
+        Optional<CartItem> existingItemOpt = cart.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .findFirst();
 
         if (existingItemOpt.isPresent()) {
             CartItem existingItem = existingItemOpt.get();
@@ -65,23 +80,123 @@ public class CartService {
             cart.getItems().add(newItem);
             cartItemRepository.save(newItem);
         }
+        CartTotals.add(cart, product, request.getQuantity());
+
+        return mapToCartResponse(cart);
+    }
+
+    // Applies the operations in order, in one transaction: products are loaded with one IN query
+    // and stock is checked for every changed line before anything is written. All or nothing;
+    // invalid input is rejected with a 400 that lists every problem.
+    @Transactional
+    public CartResponse applyCartOperations(List<CartOperation> operations, UserDetails userDetails) {
+        if (operations == null || operations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No cart operations given");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchOperations + " cart operations per request");
+        }
+        Long userId = currentUserService.getUserId(userDetails);
+        Cart cart = cartRepository.lockByUserIdWithItems(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Cart not found for user"));
+
+        Map<Long, CartItem> itemsByProductId = new HashMap<>();
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartItem item : cart.getItems()) {
+            itemsByProductId.put(item.getProduct().getId(), item);
+            quantities.put(item.getProduct().getId(), item.getQuantity());
+        }
+
+        for (CartOperation operation : operations) {
+            if (operation.getType() == null || operation.getProductId() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each cart operation needs a type and a productId");
+            }
+            Long productId = operation.getProductId();
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (operation.getQuantity() <= 0) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "ADD quantity must be positive for product: " + productId);
+                    }
+                    quantities.merge(productId, operation.getQuantity(), Integer::sum);
+                }
+                case SET -> {
+                    if (operation.getQuantity() < 0) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                "SET quantity can't be negative for product: " + productId);
+                    }
+                    quantities.put(productId, operation.getQuantity());
+                }
+                case REMOVE -> quantities.put(productId, 0);
+            }
+        }
+
+        Set<Long> changedProductIds = quantities.entrySet().stream()
+                .filter(entry -> {
+                    CartItem item = itemsByProductId.get(entry.getKey());
+                    return item == null ? entry.getValue() > 0 : item.getQuantity() != entry.getValue();
+                })
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, Product> products = productRepository.findAllById(changedProductIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<String> problems = new ArrayList<>();
+        for (Long productId : changedProductIds) {
+            Product product = products.get(productId);
+            int quantity = quantities.get(productId);
+            if (product == null) {
+                problems.add("Product not found: " + productId);
+            } else if (quantity > 0 && product.getStockQuantity() < quantity) {
+                problems.add("Not enough stock for product: " + product.getName());
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.join("; ", problems));
+        }
+
+        for (Long productId : changedProductIds) {
+            Product product = products.get(productId);
+            int quantity = quantities.get(productId);
+            CartItem item = itemsByProductId.get(productId);
+            if (item == null) {
+                CartItem newItem = new CartItem();
+                newItem.setCart(cart);
+                newItem.setProduct(product);
+                newItem.setQuantity(quantity);
+                cart.getItems().add(newItem);
+                cartItemRepository.save(newItem);
+                CartTotals.add(cart, product, quantity);
+            } else if (quantity == 0) {
+                cart.getItems().remove(item);
+                CartTotals.add(cart, product, -item.getQuantity());
+            } else {
+                CartTotals.add(cart, product, quantity - item.getQuantity());
+                item.setQuantity(quantity);
+            }
+        }
+        cartRepository.save(cart);
 
         return mapToCartResponse(cart);
     }
 
     @Transactional(readOnly = true)
     public CartResponse getCartForUser(UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(userDetails);
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found for user"));
 
-        return mapToCartResponse(cart);
+        return mapToCartResponse(cart, cartWriteBehindStore.getPending(userId));
     }
 
     @Transactional
     public CartResponse updateCartItemQuantity(Long cartItemId, int newQuantity, UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(userDetails);
+        if (cartWriteBehindStore.isEnabled()) {
+            return bufferCartItemQuantity(userId, cartItemId, newQuantity);
+        }
+        Cart cart = cartRepository.lockByUserIdWithItems(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found for user"));
 
         CartItem cartItem = cartItemRepository.findById(cartItemId)
@@ -93,12 +208,14 @@ public class CartService {
 
         if (newQuantity <= 0) {
             cart.getItems().remove(cartItem);
+            CartTotals.add(cart, cartItem.getProduct(), -cartItem.getQuantity());
             cartRepository.save(cart);
         } else {
             Product product = cartItem.getProduct();
             if (product.getStockQuantity() < newQuantity) {
                 throw new IllegalArgumentException("Not enough stock for quantity: " + newQuantity);
             }
+            CartTotals.add(cart, product, newQuantity - cartItem.getQuantity());
             cartItem.setQuantity(newQuantity);
             cartItemRepository.save(cartItem);
         }
@@ -106,10 +223,30 @@ public class CartService {
         return mapToCartResponse(cart);
     }
 
+    // Validates the change and hands it to the write-behind store; no row lock, nothing written here
+    private CartResponse bufferCartItemQuantity(Long userId, Long cartItemId, int newQuantity) {
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
+                .orElseThrow(() -> new EntityNotFoundException("Cart not found for user"));
+
+        CartItem cartItem = cart.getItems().stream()
+                .filter(item -> item.getId().equals(cartItemId))
+                .findFirst()
+                .orElseThrow(() -> cartItemRepository.existsById(cartItemId)
+                        ? new org.springframework.security.access.AccessDeniedException("This item is not in your cart")
+                        : new EntityNotFoundException("Cart item not found"));
+
+        if (newQuantity > 0 && cartItem.getProduct().getStockQuantity() < newQuantity) {
+            throw new IllegalArgumentException("Not enough stock for quantity: " + newQuantity);
+        }
+
+        Map<Long, Integer> pendingQuantities = cartWriteBehindStore.setQuantity(userId, cartItemId, newQuantity);
+        return mapToCartResponse(cart, pendingQuantities);
+    }
+
     @Transactional
     public CartResponse removeProductFromCart(Long cartItemId, UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(userDetails);
+        Cart cart = cartRepository.lockByUserIdWithItems(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found for user"));
 
         CartItem cartItem = cartItemRepository.findById(cartItemId)
@@ -120,6 +257,7 @@ public class CartService {
         }
 
         cart.getItems().remove(cartItem);
+        CartTotals.add(cart, cartItem.getProduct(), -cartItem.getQuantity());
         cartRepository.save(cart);
 
         return mapToCartResponse(cart);
@@ -127,8 +265,8 @@ public class CartService {
 
     @Transactional
     public CartResponse applyDiscount(String discountCode, UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(userDetails);
+        Cart cart = cartRepository.lockByUserIdWithItems(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found"));
 
         Discount discount = discountRepository.findByCode(discountCode)
@@ -141,9 +279,8 @@ public class CartService {
             throw new IllegalArgumentException("This discount code is not yet active.");
         }
 
-        BigDecimal productsTotal = cart.getItems().stream()
-                .map(item -> item.getProduct().getPrice().multiply(new BigDecimal(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        CartTotals.refreshIfStale(cart);
+        BigDecimal productsTotal = cart.getProductsTotalAmount();
 
         if (discount.getMinPurchaseAmount() != null &&
                 productsTotal.compareTo(discount.getMinPurchaseAmount()) < 0) {
@@ -168,21 +305,21 @@ public class CartService {
 
     @Transactional(readOnly = true)
     public List<ShippingOptionDto> getShippingOptions(Long addressId, UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
+        Long userId = currentUserService.getUserId(userDetails);
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new EntityNotFoundException("Address not found"));
 
-        if (!address.getUser().getId().equals(user.getId())) {
+        if (!address.getUser().getId().equals(userId)) {
             throw new org.springframework.security.access.AccessDeniedException("This is not your address.");
         }
 
-        TransportZone zone = findShippingZone(address);
+        PricingReferenceCache.Zone zone = findShippingZone(address);
 
         ShippingOptionDto option = ShippingOptionDto.builder()
-                .transportZoneId(zone.getId())
-                .name("Standard Ground (" + zone.getName() + ")")
-                .cost(zone.getCost())
-                .carbonFootprint(zone.getFlatCarbonFootprint())
+                .transportZoneId(zone.id())
+                .name("Standard Ground (" + zone.name() + ")")
+                .cost(zone.cost())
+                .carbonFootprint(zone.flatCarbonFootprint())
                 .build();
 
         return Collections.singletonList(option);
@@ -190,23 +327,23 @@ public class CartService {
 
     @Transactional
     public CartResponse selectShippingOption(SelectShippingRequest request, UserDetails userDetails) {
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        Long userId = currentUserService.getUserId(userDetails);
+        Cart cart = cartRepository.lockByUserIdWithItems(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found"));
 
         Address address = addressRepository.findById(request.getAddressId())
                 .orElseThrow(() -> new EntityNotFoundException("Address not found"));
 
-        TransportZone zone = findShippingZone(address);
+        PricingReferenceCache.Zone zone = findShippingZone(address);
 
         cart.setShippingAddress(address);
-        cart.setSelectedTransportZone(zone);
+        cart.setSelectedTransportZone(transportZoneRepository.getReferenceById(zone.id()));
         cartRepository.save(cart);
 
         return mapToCartResponse(cart);
     }
 
-    private TransportZone findShippingZone(Address address) {
+    private PricingReferenceCache.Zone findShippingZone(Address address) {
         String zoneName;
         if (address.getCountry().equalsIgnoreCase("India")) {
             if (address.getState().equalsIgnoreCase(WAREHOUSE_STATE)) {
@@ -222,23 +359,41 @@ public class CartService {
             zoneName = "Inter-state";
         }
 
-        return transportZoneRepository.findByName(zoneName)
-                .orElseThrow(() -> new EntityNotFoundException("Shipping zone not configured: " + zoneName));
+        PricingReferenceCache.Zone zone = pricingReferenceCache.findZoneByName(zoneName);
+        if (zone == null) {
+            throw new EntityNotFoundException("Shipping zone not configured: " + zoneName);
+        }
+        return zone;
     }
 
     CartResponse mapToCartResponse(Cart cart) {
+        return mapToCartResponse(cart, Map.of());
+    }
 
-        List<CartItemResponse> itemResponses = cart.getItems().stream()
-                .map(this::mapToCartItemResponse)
-                .collect(Collectors.toList());
-
-        BigDecimal productsTotalAmount = itemResponses.stream()
-                .map(CartItemResponse::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal productsTotalCarbon = itemResponses.stream()
-                .map(CartItemResponse::getSubtotalCarbonFootprint)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // pendingQuantities (cart item id -> quantity) are write-behind changes not yet in the database;
+    // they are overlaid on the response without touching the entities
+    private CartResponse mapToCartResponse(Cart cart, Map<Long, Integer> pendingQuantities) {
+        CartTotals.refreshIfStale(cart);
+
+        int itemCount = cart.getItemCount();
+        BigDecimal productsTotalAmount = cart.getProductsTotalAmount();
+        BigDecimal productsTotalCarbon = cart.getProductsTotalCarbon();
+        List<CartItemResponse> itemResponses = new ArrayList<>();
+
+        for (CartItem item : cart.getItems()) {
+            int quantity = Math.max(pendingQuantities.getOrDefault(item.getId(), item.getQuantity()), 0);
+            int delta = quantity - item.getQuantity();
+            if (delta != 0) {
+                BigDecimal quantityDelta = BigDecimal.valueOf(delta);
+                itemCount += delta;
+                productsTotalAmount = productsTotalAmount.add(item.getProduct().getPrice().multiply(quantityDelta));
+                productsTotalCarbon = productsTotalCarbon.add(
+                        item.getProduct().getCradleToWarehouseFootprint().multiply(quantityDelta));
+            }
+            if (quantity > 0) {
+                itemResponses.add(mapToCartItemResponse(item, quantity));
+            }
+        }
 
         DiscountResponse discountResponse = null;
         BigDecimal amountSaved = BigDecimal.ZERO;
@@ -272,18 +427,26 @@ public class CartService {
             shippingAddressDto = mapToAddressDto(cart.getShippingAddress());
         }
         if (cart.getSelectedTransportZone() != null) {
-            shippingCost = cart.getSelectedTransportZone().getCost();
-            shippingCarbon = cart.getSelectedTransportZone().getFlatCarbonFootprint();
+            // getId() doesn't initialize the proxy; cost and carbon come from the cache
+            PricingReferenceCache.Zone zone = pricingReferenceCache.findZoneById(cart.getSelectedTransportZone().getId());
+            if (zone != null) {
+                shippingCost = zone.cost();
+                shippingCarbon = zone.flatCarbonFootprint();
+            } else {
+                shippingCost = cart.getSelectedTransportZone().getCost();
+                shippingCarbon = cart.getSelectedTransportZone().getFlatCarbonFootprint();
+            }
         }
 
         BigDecimal taxAmount = BigDecimal.ZERO;
         BigDecimal taxableAmount = productsTotalAmount.subtract(amountSaved).add(shippingCost);
 
         if (cart.getShippingAddress() != null) {
-            TaxRate taxRate = taxRateRepository.findByName("GST").orElse(null);
+            Address address = cart.getShippingAddress();
+            BigDecimal taxRate = pricingReferenceCache.findTaxRate(address.getCountry(), address.getState());
             if (taxRate != null) {
                 // FIX: Rounding Mode here too just in case
-                taxAmount = taxableAmount.multiply(taxRate.getRate().divide(new BigDecimal(100), 4, RoundingMode.HALF_UP));
+                taxAmount = taxableAmount.multiply(taxRate.divide(new BigDecimal(100), 4, RoundingMode.HALF_UP));
             }
         }
 
@@ -292,6 +455,7 @@ public class CartService {
         return CartResponse.builder()
                 .cartId(cart.getId())
                 .items(itemResponses)
+                .itemCount(itemCount)
                 .productsTotalAmount(productsTotalAmount.setScale(2, RoundingMode.HALF_UP))
                 .productsTotalCarbon(productsTotalCarbon.setScale(2, RoundingMode.HALF_UP))
                 .appliedDiscount(discountResponse)
@@ -303,9 +467,9 @@ public class CartService {
                 .build();
     }
 
-    private CartItemResponse mapToCartItemResponse(CartItem item) {
+    private CartItemResponse mapToCartItemResponse(CartItem item, int itemQuantity) {
         Product product = item.getProduct();
-        BigDecimal quantity = new BigDecimal(item.getQuantity());
+        BigDecimal quantity = new BigDecimal(itemQuantity);
         BigDecimal subtotal = product.getPrice().multiply(quantity);
         BigDecimal subtotalCarbon = product.getCradleToWarehouseFootprint().multiply(quantity);
 
@@ -315,18 +479,13 @@ public class CartService {
                 .productName(product.getName())
                 .imageUrl(product.getImageUrl())
                 .price(product.getPrice())
-                .quantity(item.getQuantity())
+                .quantity(itemQuantity)
                 .subtotal(subtotal)
                 .itemCarbonFootprint(product.getCradleToWarehouseFootprint())
                 .subtotalCarbonFootprint(subtotalCarbon)
                 .build();
     }
 
-    private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-    }
-
     private AddressDto mapToAddressDto(Address entity) {
         AddressDto dto = new AddressDto();
         dto.setId(entity.getId());
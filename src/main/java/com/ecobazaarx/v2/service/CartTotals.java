@@ -0,0 +1,39 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Cart;
+import com.ecobazaarx.v2.model.Product;
+
+import java.math.BigDecimal;
+
+// Maintains the running item totals stored on Cart. Shared by CartService,
+// CheckoutService and the write-behind cart store.
+final class CartTotals {
+
+    private CartTotals() {
+    }
+
+    // Applies a quantity change for one product to the cart's running totals
+    static void add(Cart cart, Product product, int quantityDelta) {
+        BigDecimal quantity = BigDecimal.valueOf(quantityDelta);
+        cart.setItemCount(cart.getItemCount() + quantityDelta);
+        cart.setProductsTotalAmount(cart.getProductsTotalAmount().add(product.getPrice().multiply(quantity)));
+        cart.setProductsTotalCarbon(cart.getProductsTotalCarbon()
+                .add(product.getCradleToWarehouseFootprint().multiply(quantity)));
+    }
+
+    // Full recompute from the items; only needed after a price change or for legacy rows.
+    // In a read-only transaction the result is used but not persisted.
+    static void refreshIfStale(Cart cart) {
+        if (cart.isTotalsStale()) {
+            recalculate(cart);
+        }
+    }
+
+    static void recalculate(Cart cart) {
+        cart.setItemCount(0);
+        cart.setProductsTotalAmount(BigDecimal.ZERO);
+        cart.setProductsTotalCarbon(BigDecimal.ZERO);
+        cart.getItems().forEach(item -> add(cart, item.getProduct(), item.getQuantity()));
+        cart.setTotalsStale(false);
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Cart;
+import com.ecobazaarx.v2.model.CartItem;
+import com.ecobazaarx.v2.repository.CartRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Opt-in buffer for cart quantity changes (the +/- buttons). A change is validated against the
+// database, kept here as the latest absolute quantity per item (so rapid clicks coalesce into
+// one write) and written to cart_items in batches in the background.
+// Every other cart operation and checkout flushes the user's pending changes first, from the
+// controller, so the flush commits before the operation's own transaction reads the cart.
+// A flush already running for the user (e.g. the scheduled one) is waited for, not skipped.
+//
+// Trade-off: changes accepted since the last flush are lost if the process dies; shutdown flushes.
+// Per instance, so a multi-node deployment needs sticky sessions for carts.
+@Slf4j
+@Service
+public class CartWriteBehindStore {
+
+    private static final int FLUSH_LOCK_STRIPES = 256;
+
+    private final CartRepository cartRepository;
+    private final CurrentUserService currentUserService;
+    private final TransactionTemplate flushTransaction;
+    private final boolean enabled;
+    private final int batchSize;
+
+    // user id -> (cart item id -> quantity); inner maps are replaced, never mutated, so readers
+    // can iterate them safely. ConcurrentHashMap already locks per bin, which keeps users independent.
+    private final Map<Long, Map<Long, Integer>> pending = new ConcurrentHashMap<>();
+    // Users whose drained changes haven't committed yet; guarded by the user's flush lock
+    private final Set<Long> flushing = ConcurrentHashMap.newKeySet();
+    // Striped, so a user's flushes run one at a time without a lock object per user
+    private final ReentrantLock[] flushLocks = new ReentrantLock[FLUSH_LOCK_STRIPES];
+
+    public CartWriteBehindStore(
+            CartRepository cartRepository,
+            CurrentUserService currentUserService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${application.cart.write-behind.enabled:false}") boolean enabled,
+            @Value("${application.cart.write-behind.batch-size:100}") int batchSize
+    ) {
+        this.cartRepository = cartRepository;
+        this.currentUserService = currentUserService;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        // Flushes commit on their own: a caller that later rolls back must not take the user's clicks with it
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        for (int i = 0; i < flushLocks.length; i++) {
+            flushLocks[i] = new ReentrantLock();
+        }
+        Gauge.builder("cart.write_behind.pending", pending, Map::size)
+                .description("Carts with quantity changes not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns all of the user's pending quantities, including this one
+    public Map<Long, Integer> setQuantity(Long userId, Long cartItemId, int quantity) {
+        return pending.compute(userId, (id, items) -> {
+            Map<Long, Integer> next = items == null ? new HashMap<>() : new HashMap<>(items);
+            next.put(cartItemId, quantity);
+            return next;
+        });
+    }
+
+    public Map<Long, Integer> getPending(Long userId) {
+        return pending.getOrDefault(userId, Map.of());
+    }
+
+    // For controllers, before the service transaction opens. Flushing inside it would hold a second
+    // pooled connection per request and commit after the caller may already have loaded the cart.
+    public void flush(UserDetails currentUser) {
+        if (!pending.isEmpty() || !flushing.isEmpty()) {
+            flush(currentUserService.getUserId(currentUser));
+        }
+    }
+
+    // Returns once everything the user changed before the call has committed
+    public void flush(Long userId) {
+        if (pending.containsKey(userId) || flushing.contains(userId)) {
+            flushUsers(List.of(userId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.cart.write-behind.flush-interval:1000}")
+    public void flushAll() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        Iterator<Long> userIds = pending.keySet().iterator();
+        while (userIds.hasNext()) {
+            batch.add(userIds.next());
+            if (batch.size() == batchSize || !userIds.hasNext()) {
+                try {
+                    flushUsers(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Cart write-behind flush of {} carts failed; will retry", batch.size(), e);
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+    }
+
+    // One transaction per batch. On failure the changes go back into the buffer,
+    // unless the user has made a newer change to the same item in the meantime.
+    // The users' flush locks are held until the transaction ends, so a concurrent flush(userId)
+    // waits for the commit instead of finding the buffer already drained.
+    private void flushUsers(List<Long> userIds) {
+        // Always taken in ascending stripe order, so two batches can't deadlock
+        SortedSet<Integer> stripes = new TreeSet<>();
+        for (Long userId : userIds) {
+            stripes.add(Math.floorMod(userId.hashCode(), FLUSH_LOCK_STRIPES));
+        }
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (int stripe : stripes) {
+                flushLocks[stripe].lock();
+                held.add(flushLocks[stripe]);
+            }
+            flushing.addAll(userIds);
+            flushLocked(userIds);
+        } finally {
+            flushing.removeAll(userIds);
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private void flushLocked(List<Long> userIds) {
+        Map<Long, Map<Long, Integer>> drained = new HashMap<>();
+        for (Long userId : userIds) {
+            Map<Long, Integer> items = pending.remove(userId);
+            if (items != null) {
+                drained.put(userId, items);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            flushTransaction.executeWithoutResult(status -> drained.forEach(this::apply));
+        } catch (RuntimeException e) {
+            drained.forEach((userId, items) -> pending.merge(userId, items, (newer, older) -> {
+                Map<Long, Integer> merged = new HashMap<>(older);
+                merged.putAll(newer);
+                return merged;
+            }));
+            throw e;
+        }
+    }
+
+    private void apply(Long userId, Map<Long, Integer> quantities) {
+        Cart cart = cartRepository.lockByUserIdWithItems(userId).orElse(null);
+        if (cart == null) {
+            return;
+        }
+        // Items removed since the change was accepted are simply skipped
+        Iterator<CartItem> items = cart.getItems().iterator();
+        while (items.hasNext()) {
+            CartItem item = items.next();
+            Integer quantity = quantities.get(item.getId());
+            if (quantity == null) {
+                continue;
+            }
+            int newQuantity = Math.max(quantity, 0);
+            CartTotals.add(cart, item.getProduct(), newQuantity - item.getQuantity());
+            if (newQuantity == 0) {
+                items.remove();
+            } else {
+                item.setQuantity(newQuantity);
+            }
+        }
+        cartRepository.save(cart);
+    }
+}
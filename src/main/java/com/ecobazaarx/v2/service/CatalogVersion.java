@@ -0,0 +1,36 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.config.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counters behind the catalog ETags. "listings" moves on every committed product change;
+// "shared" only when data embedded in every product (category or store names) changes.
+// Seeded from the clock so ETags from a previous run never match. Per instance: on several
+// nodes a client may just get a 200 instead of a 304 when it hits a different one.
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong listings = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong shared = new AtomicLong(System.currentTimeMillis());
+
+    public String listingETag() {
+        return "c" + listings.get();
+    }
+
+    public String productETag(Long productId, long productVersion) {
+        return "p" + productId + "-" + productVersion + "-" + shared.get();
+    }
+
+    public void productChangedAfterCommit() {
+        AfterCommit.run(listings::incrementAndGet);
+    }
+
+    public void sharedChangedAfterCommit() {
+        AfterCommit.run(() -> {
+            shared.incrementAndGet();
+            listings.incrementAndGet();
+        });
+    }
+}
@@ -35,6 +35,8 @@ public class CheckoutService {
     private final OrderItemRepository orderItemRepository;
     private final CartService cartService;
     private final GamificationService gamificationService;
+    private final ProductDetailCache productDetailCache;
+    private final CurrentUserService currentUserService;
 
     private static final int REFERRAL_BONUS_POINTS = 500;
     private static final BigDecimal ECO_POINT_CONVERSION_RATE = new BigDecimal("0.01");
@@ -49,10 +51,13 @@ public class CheckoutService {
 
     @Transactional(rollbackFor = Exception.class)
     public CheckoutResponse placeOrder(CheckoutRequest checkoutRequest, UserDetails userDetails) throws StripeException {
-        // 1. Get User and Cart
-        User user = findUserByEmail(userDetails.getUsername());
-        Cart cart = cartRepository.findByUserId(user.getId())
+        // 1. Get Cart and User
+        // The cart is locked before anything else is read: User.cart is eager, so loading the user first
+        // would pin the cart as it was before a write-behind flush that commits while we wait for the lock.
+        // The caller flushes this user's buffered quantities before the transaction starts.
+        Cart cart = cartRepository.lockByUserIdWithItems(currentUserService.getUserId(userDetails))
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found"));
+        User user = findUserByEmail(userDetails.getUsername());
 
         // 2. Validate Cart
         if (cart.getItems().isEmpty()) {
@@ -62,7 +67,8 @@ public class CheckoutService {
             throw new IllegalStateException("Please select a shipping address");
         }
 
-        // 3. Get Final Totals (Pre-Points)
+        // 3. Get Final Totals (Pre-Points); the amount charged is never based on running totals alone
+        CartTotals.recalculate(cart);
         CartResponse cartTotals = cartService.mapToCartResponse(cart);
         BigDecimal finalTotal = cartTotals.getGrandTotal();
 
@@ -121,6 +127,7 @@ public class CheckoutService {
 
             product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
             productRepository.save(product);
+            productDetailCache.updateStockAfterCommit(product.getId(), product.getStockQuantity());
 
             totalEcoPointsAwarded += product.getEcoPoints() * cartItem.getQuantity();
         }
@@ -151,6 +158,7 @@ public class CheckoutService {
 
         // 13. Clear Cart
         cart.getItems().clear();
+        CartTotals.recalculate(cart);
         cart.setAppliedDiscount(null);
         cart.setShippingAddress(null);
         cart.setSelectedTransportZone(null);
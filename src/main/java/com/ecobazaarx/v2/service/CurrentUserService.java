@@ -0,0 +1,38 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.config.AuthenticatedUser;
+import com.ecobazaarx.v2.model.User;
+import com.ecobazaarx.v2.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+// Resolves the caller from the principal the JWT filter already loaded,
+// so services don't have to re-query users_tb by email.
+@Service
+@RequiredArgsConstructor
+public class CurrentUserService {
+
+    private final UserRepository userRepository;
+
+    public Long getUserId(UserDetails currentUser) {
+        if (currentUser instanceof AuthenticatedUser authenticatedUser && authenticatedUser.getId() != null) {
+            return authenticatedUser.getId();
+        }
+        if (currentUser instanceof User user) {
+            return user.getId();
+        }
+        return getUser(currentUser).getId();
+    }
+
+    // Lazy reference for setting associations; only hits the DB if a non-id field is read.
+    public User getUserReference(UserDetails currentUser) {
+        return userRepository.getReferenceById(getUserId(currentUser));
+    }
+
+    public User getUser(UserDetails currentUser) {
+        return userRepository.findByEmail(currentUser.getUsername())
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+    }
+}
@@ -5,7 +5,6 @@ import com.ecobazaarx.v2.model.EcoPointLedger;
 import com.ecobazaarx.v2.model.User;
 import com.ecobazaarx.v2.repository.EcoPointLedgerRepository;
 import com.ecobazaarx.v2.repository.UserRepository;
-import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,12 +19,12 @@ public class GamificationService {
 
     private final EcoPointLedgerRepository ledgerRepository;
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
     @Transactional(readOnly = true)
     public Page<EcoPointLedgerDto> getPointHistory(UserDetails currentUser, Pageable pageable) {
-        User user = userRepository.findByEmail(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-        Page<EcoPointLedger> ledgerPage = ledgerRepository.findByUserIdOrderByTransactionDateDesc(user.getId(), pageable);
+        Long userId = currentUserService.getUserId(currentUser);
+        Page<EcoPointLedger> ledgerPage = ledgerRepository.findByUserIdOrderByTransactionDateDesc(userId, pageable);
         return ledgerPage.map(this::mapToDto);
     }
 
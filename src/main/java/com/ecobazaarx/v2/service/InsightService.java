@@ -9,7 +9,6 @@ import com.ecobazaarx.v2.repository.OrderItemRepository;
 import com.ecobazaarx.v2.repository.OrderRepository;
 import com.ecobazaarx.v2.repository.ProductRepository;
 import com.ecobazaarx.v2.repository.UserRepository;
-import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -35,13 +34,13 @@ public class InsightService {
     private final OrderItemRepository orderItemRepository;
     private final ProductService productService;
     private final CsvExportService csvExportService;
+    private final CurrentUserService currentUserService;
 
     @Transactional(readOnly = true)
     public ProfileInsightResponse getProfileInsights(UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = currentUserService.getUserId(userDetails);
 
-        List<Order> userOrders = orderRepository.findByUserId(user.getId());
+        List<Order> userOrders = orderRepository.findByUserId(userId);
 
         int totalOrders = userOrders.size();
         BigDecimal totalSpent = BigDecimal.ZERO;
@@ -86,19 +85,18 @@ public class InsightService {
 
     @Transactional(readOnly = true)
     public SellerInsightResponse getSellerInsights(UserDetails userDetails) {
-        User seller = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Seller not found"));
+        Long sellerId = currentUserService.getUserId(userDetails);
 
-        SellerStatsDto salesStats = orderRepository.getSellerSalesStats(seller.getId());
+        SellerStatsDto salesStats = orderRepository.getSellerSalesStats(sellerId);
 
-        BigDecimal avgCarbon = productRepository.getSellerAverageProductCarbon(seller.getId());
+        BigDecimal avgCarbon = productRepository.getSellerAverageProductCarbon(sellerId);
         if (avgCarbon == null) {
             avgCarbon = BigDecimal.ZERO;
         }
 
         long inventoryCount = productRepository.count((root, query, cb) ->
                 cb.and(
-                        cb.equal(root.get("seller").get("id"), seller.getId()),
+                        cb.equal(root.get("seller").get("id"), sellerId),
                         cb.isFalse(root.get("isArchived"))
                 )
         );
@@ -124,14 +122,13 @@ public class InsightService {
 
     @Transactional(readOnly = true)
     public SellerProductPerformanceDto getProductPerformance(UserDetails userDetails) {
-        User seller = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Seller not found"));
+        Long sellerId = currentUserService.getUserId(userDetails);
 
         Pageable top5 = PageRequest.of(0, 5);
-        List<Product> topSellingProducts = orderItemRepository.findTopSellingProductsBySeller(seller.getId(), top5);
-        List<Product> lowestStockProducts = productRepository.findBySellerIdOrderByStockQuantityAsc(seller.getId(), top5);
-        List<Product> lowestCarbonProducts = productRepository.findBySellerIdOrderByCradleToWarehouseFootprintAsc(seller.getId(), top5);
-        List<Product> highestCarbonProducts = productRepository.findBySellerIdOrderByCradleToWarehouseFootprintDesc(seller.getId(), top5);
+        List<Product> topSellingProducts = orderItemRepository.findTopSellingProductsBySeller(sellerId, top5);
+        List<Product> lowestStockProducts = productRepository.findBySellerIdOrderByStockQuantityAsc(sellerId, top5);
+        List<Product> lowestCarbonProducts = productRepository.findBySellerIdOrderByCradleToWarehouseFootprintAsc(sellerId, top5);
+        List<Product> highestCarbonProducts = productRepository.findBySellerIdOrderByCradleToWarehouseFootprintDesc(sellerId, top5);
         return SellerProductPerformanceDto.builder()
                 .topSelling(mapProductListToDto(topSellingProducts))
                 .lowestStock(mapProductListToDto(lowestStockProducts))
@@ -188,10 +185,9 @@ public class InsightService {
 
     @Transactional(readOnly = true)
     public String getSellerSalesCsv(UserDetails userDetails) {
-        User seller = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Seller not found"));
+        Long sellerId = currentUserService.getUserId(userDetails);
 
-        List<Order> orders = orderRepository.findAllDeliveredOrdersBySellerId(seller.getId());
+        List<Order> orders = orderRepository.findAllDeliveredOrdersBySellerId(sellerId);
 
         return csvExportService.writeOrdersToCsv(orders);
     }
@@ -229,8 +225,6 @@ public class InsightService {
     }
 
     private List<ProductResponseDto> mapProductListToDto(List<Product> products) {
-        return products.stream()
-                .map(productService::mapToResponseDto)
-                .collect(Collectors.toList());
+        return productService.mapToResponseDtos(products);
     }
 }
@@ -5,9 +5,7 @@ import com.ecobazaarx.v2.dto.OrderItemDto;
 import com.ecobazaarx.v2.model.Order;
 import com.ecobazaarx.v2.model.OrderItem;
 import com.ecobazaarx.v2.model.OrderStatus;
-import com.ecobazaarx.v2.model.User;
 import com.ecobazaarx.v2.repository.OrderRepository;
-import com.ecobazaarx.v2.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
@@ -29,26 +27,24 @@ import java.util.stream.Collectors;
 public class OrderHistoryService {
 
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
     @Transactional(readOnly = true)
     public Page<OrderDto> getMyOrderHistory(UserDetails currentUser, int page, int size) {
-        User user = userRepository.findByEmail(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = currentUserService.getUserId(currentUser);
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orderPage = orderRepository.findByUserIdOrderByOrderDateDesc(user.getId(), pageable);
+        Page<Order> orderPage = orderRepository.findByUserIdOrderByOrderDateDesc(userId, pageable);
         return orderPage.map(this::mapOrderToOrderDto);
     }
 
     @Transactional(readOnly = true)
     public OrderDto getMyOrderDetails(UserDetails currentUser, Long orderId) {
-        User user = userRepository.findByEmail(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = currentUserService.getUserId(currentUser);
 
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
 
-        if (!order.getUser().getId().equals(user.getId())) {
+        if (!order.getUser().getId().equals(userId)) {
             throw new org.springframework.security.access.AccessDeniedException("You do not own this order");
         }
         return mapOrderToOrderDto(order);
@@ -77,15 +73,14 @@ public class OrderHistoryService {
                 .orElseThrow(() -> new EntityNotFoundException("Order not found"));
 
         // Check if admin or owner seller
-        User user = userRepository.findByEmail(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = currentUserService.getUserId(currentUser);
 
-        boolean isAdmin = user.getRoles().stream().anyMatch(r -> r.getName().name().equals("ROLE_ADMIN"));
+        boolean isAdmin = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
         if (!isAdmin) {
             // Check if seller owns any item in order
             boolean isSeller = order.getOrderItems().stream()
-                    .anyMatch(item -> item.getProduct().getSeller().getId().equals(user.getId()));
+                    .anyMatch(item -> item.getProduct().getSeller().getId().equals(userId));
             if (!isSeller) {
                 throw new AccessDeniedException("Unauthorized");
             }
@@ -107,9 +102,8 @@ public class OrderHistoryService {
 
     @Transactional(readOnly = true)
     public Page<OrderDto> getSellerOrders(UserDetails sellerDetails, Pageable pageable) {
-        User seller = userRepository.findByEmail(sellerDetails.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("Seller not found"));
-        Page<Order> orderPage = orderRepository.findOrdersBySellerId(seller.getId(), pageable);
+        Long sellerId = currentUserService.getUserId(sellerDetails);
+        Page<Order> orderPage = orderRepository.findOrdersBySellerId(sellerId, pageable);
         return orderPage.map(this::mapOrderToOrderDtoForSeller);
     }
 
@@ -0,0 +1,132 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.config.AfterCommit;
+import com.ecobazaarx.v2.model.TaxRate;
+import com.ecobazaarx.v2.model.TransportZone;
+import com.ecobazaarx.v2.repository.TaxRateRepository;
+import com.ecobazaarx.v2.repository.TransportZoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Tax rates and transport zones for cart pricing, held in memory so pricing never queries them.
+// Both tables only change through AdminService, which reloads this after commit; the whole
+// snapshot is replaced at once, so a reader never sees half of an update. Per instance.
+@Service
+@RequiredArgsConstructor
+public class PricingReferenceCache {
+
+    // Used when no rate matches the address, as pricing did before rates were looked up by region
+    private static final String DEFAULT_TAX_RATE_NAME = "GST";
+
+    private final TaxRateRepository taxRateRepository;
+    private final TransportZoneRepository transportZoneRepository;
+
+    // Reloads run one at a time, so the last one to finish has read the latest committed data
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        reloadLock.lock();
+        try {
+            snapshot = loadSnapshot();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot loadSnapshot() {
+        Map<String, TaxRate> ratesByRegion = new HashMap<>();
+        TaxRate defaultTaxRate = null;
+        for (TaxRate taxRate : taxRateRepository.findAll()) {
+            ratesByRegion.merge(regionKey(taxRate.getCountry(), taxRate.getState()), taxRate,
+                    PricingReferenceCache::preferred);
+            if (DEFAULT_TAX_RATE_NAME.equals(taxRate.getName())) {
+                defaultTaxRate = defaultTaxRate == null ? taxRate : preferred(defaultTaxRate, taxRate);
+            }
+        }
+        Map<String, BigDecimal> taxRates = new HashMap<>();
+        ratesByRegion.forEach((region, taxRate) -> taxRates.put(region, taxRate.getRate()));
+
+        Map<String, Zone> zonesByName = new HashMap<>();
+        Map<Integer, Zone> zonesById = new HashMap<>();
+        for (TransportZone transportZone : transportZoneRepository.findAll()) {
+            Zone zone = new Zone(transportZone.getId(), transportZone.getName(),
+                    transportZone.getCost(), transportZone.getFlatCarbonFootprint());
+            zonesByName.put(transportZone.getName().toLowerCase(Locale.ROOT), zone);
+            zonesById.put(zone.id(), zone);
+        }
+
+        return new Snapshot(Map.copyOf(taxRates), defaultTaxRate != null ? defaultTaxRate.getRate() : null,
+                Map.copyOf(zonesByName), Map.copyOf(zonesById));
+    }
+
+    // Several rates can share a region; pick one regardless of findAll order:
+    // the GST rate if there is one, otherwise the oldest row
+    private static TaxRate preferred(TaxRate current, TaxRate candidate) {
+        boolean currentIsDefault = DEFAULT_TAX_RATE_NAME.equals(current.getName());
+        boolean candidateIsDefault = DEFAULT_TAX_RATE_NAME.equals(candidate.getName());
+        if (currentIsDefault != candidateIsDefault) {
+            return currentIsDefault ? current : candidate;
+        }
+        return candidate.getId() < current.getId() ? candidate : current;
+    }
+
+    public void reloadAfterCommit() {
+        AfterCommit.run(this::reload);
+    }
+
+    // Most specific first: country + state, then country only, then the default rate.
+    // null when none applies.
+    public BigDecimal findTaxRate(String country, String state) {
+        Snapshot current = current();
+        BigDecimal rate = current.taxRates().get(regionKey(country, state));
+        if (rate == null) {
+            rate = current.taxRates().get(regionKey(country, null));
+        }
+        return rate != null ? rate : current.defaultTaxRate();
+    }
+
+    public Zone findZoneByName(String name) {
+        return current().zonesByName().get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Zone findZoneById(Integer id) {
+        return current().zonesById().get(id);
+    }
+
+    // Requests can arrive before ApplicationReadyEvent; the first one loads the tables
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static String regionKey(String country, String state) {
+        String normalizedCountry = country == null ? "" : country.trim().toLowerCase(Locale.ROOT);
+        String normalizedState = state == null ? "" : state.trim().toLowerCase(Locale.ROOT);
+        return normalizedCountry + "|" + normalizedState;
+    }
+
+    public record Zone(Integer id, String name, BigDecimal cost, BigDecimal flatCarbonFootprint) {
+    }
+
+    private record Snapshot(
+            Map<String, BigDecimal> taxRates,
+            BigDecimal defaultTaxRate,
+            Map<String, Zone> zonesByName,
+            Map<Integer, Zone> zonesById
+    ) {
+    }
+}
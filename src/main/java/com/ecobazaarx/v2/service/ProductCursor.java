@@ -0,0 +1,38 @@
+package com.ecobazaarx.v2.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque position in a product listing: the sort key and id of the last row served.
+// For relevance-ranked searches the value is the position in the ranked list instead.
+public record ProductCursor(String sortKey, String value, Long id) {
+
+    public static final String RELEVANCE = "relevance";
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null or blank means "start from the beginning"; anything else that doesn't decode is a 400
+    public static ProductCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length == 3) {
+                return new ProductCursor(parts[0], parts[1], Long.valueOf(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // bad base64 or NumberFormatException
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.config.AfterCommit;
+import com.ecobazaarx.v2.dto.ProductResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Read-through cache for product detail DTOs. Stock lives in a separate map so a sale
+// only rewrites one integer instead of evicting the whole DTO.
+// Changes are applied after commit, so a rolled-back write never reaches the cache.
+@Service
+public class ProductDetailCache {
+
+    private final Cache<Long, ProductResponseDto> details;
+    private final Cache<Long, Integer> stockLevels;
+    private final CatalogVersion catalogVersion;
+    private final AtomicLong uncachedStockUpdates = new AtomicLong();
+
+    public ProductDetailCache(
+            MeterRegistry meterRegistry,
+            CatalogVersion catalogVersion,
+            @Value("${application.products.detail-cache.max-size:10000}") long maxSize,
+            @Value("${application.products.detail-cache.expire-after-write:600000}") long expireAfterWrite
+    ) {
+        this.details = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .recordStats()
+                .build();
+        this.stockLevels = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .build();
+        this.catalogVersion = catalogVersion;
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "productDetails");
+    }
+
+    // Returns a copy, so callers can't modify the cached instance.
+    // A (re)load reads the current stock, so any older overlay is dropped first.
+    public ProductResponseDto get(Long productId, Function<Long, ProductResponseDto> loader) {
+        ProductResponseDto cached = details.get(productId, key -> {
+            stockLevels.invalidate(key);
+            return loader.apply(key);
+        });
+        Integer stock = stockLevels.getIfPresent(productId);
+        return cached.toBuilder()
+                .stockQuantity(stock != null ? stock : cached.getStockQuantity())
+                .build();
+    }
+
+    // Every invalidation is also a catalog change, so the ETag versions move with it
+    public void evictAfterCommit(Long productId) {
+        catalogVersion.productChangedAfterCommit();
+        AfterCommit.run(() -> {
+            details.invalidate(productId);
+            stockLevels.invalidate(productId);
+        });
+    }
+
+    // For changes that touch many products at once (category or store renames)
+    public void evictAllAfterCommit() {
+        catalogVersion.sharedChangedAfterCommit();
+        AfterCommit.run(() -> {
+            details.invalidateAll();
+            stockLevels.invalidateAll();
+        });
+    }
+
+    // Misses are loaded with one loader call; ids the loader doesn't return are simply absent
+    public Map<Long, ProductResponseDto> getAll(Collection<Long> productIds,
+                                                Function<Set<? extends Long>, Map<Long, ProductResponseDto>> loader) {
+        Map<Long, ProductResponseDto> result = new HashMap<>();
+        long stamp = uncachedStockUpdates.get();
+        Set<Long> loaded = new HashSet<>();
+        Map<Long, ProductResponseDto> found = details.getAll(productIds, missing -> {
+            loaded.addAll(missing);
+            stockLevels.invalidateAll(missing);
+            return loader.apply(missing);
+        });
+        // Unlike a single load, a bulk load doesn't block invalidate, so a sale that committed
+        // meanwhile can't discard it. Drop what was loaded and let the next read load fresh.
+        if (!loaded.isEmpty() && uncachedStockUpdates.get() != stamp) {
+            details.invalidateAll(loaded);
+        }
+        found.forEach((productId, cached) -> {
+            Integer stock = stockLevels.getIfPresent(productId);
+            result.put(productId, cached.toBuilder()
+                    .stockQuantity(stock != null ? stock : cached.getStockQuantity())
+                    .build());
+        });
+        return result;
+    }
+
+    // Only tracked while the product's DTO is cached. Otherwise both entries are dropped:
+    // invalidate waits for a load that is still in flight (it may have read the old stock)
+    // and discards its result, so the next read loads fresh.
+    public void updateStockAfterCommit(Long productId, int stockQuantity) {
+        catalogVersion.productChangedAfterCommit();
+        AfterCommit.run(() -> {
+            if (details.getIfPresent(productId) != null) {
+                stockLevels.put(productId, stockQuantity);
+            } else {
+                uncachedStockUpdates.incrementAndGet();
+                details.invalidate(productId);
+                stockLevels.invalidate(productId);
+            }
+        });
+    }
+}
@@ -0,0 +1,313 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.config.AfterCommit;
+import com.ecobazaarx.v2.dto.FacetCount;
+import com.ecobazaarx.v2.dto.ProductSearchFacets;
+import com.ecobazaarx.v2.model.Product;
+import com.ecobazaarx.v2.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-memory inverted index over the name, category and description of active products,
+// plus the attributes needed for filtering and facet counts, so a search page is served
+// without per-facet COUNT queries. Built from the database at startup and kept current
+// after each committed create/update/archive. Per instance: every node maintains its own copy.
+@Service
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // A prefix hit ("bamb" -> "bamboo") counts for less than the exact term
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private static final RangeFacet PRICE_RANGES = new RangeFacet(0, 500, 1000, 5000, 20000);
+    private static final RangeFacet CARBON_RANGES = new RangeFacet(0, 1, 5, 10, 25);
+    private static final RangeFacet ECO_POINT_RANGES = new RangeFacet(0, 50, 100, 200);
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Map<Long, IndexedProduct> documents = new HashMap<>();
+    // term -> (product id -> weighted term frequency); sorted so prefixes are a range scan
+    private NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // Changes committed while a rebuild reads the table; its snapshot may predate them, so they
+    // are replayed onto it before the swap. Null when no rebuild is running. Guarded by lock.
+    private List<Runnable> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<Long, IndexedProduct> newDocuments = null;
+            NavigableMap<String, Map<Long, Integer>> newPostings = new TreeMap<>();
+            try {
+                Map<Long, IndexedProduct> loaded = new HashMap<>();
+                for (Object[] row : productRepository.findSearchDocuments()) {
+                    IndexedProduct document = new IndexedProduct(
+                            (Long) row[0], (String) row[1], (String) row[2], (Integer) row[3], (String) row[4],
+                            (BigDecimal) row[5], (BigDecimal) row[6], (Integer) row[7]
+                    );
+                    loaded.put(document.id(), document);
+                    addPostings(newPostings, document);
+                }
+                newDocuments = loaded;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (newDocuments != null) {
+                        documents = newDocuments;
+                        postings = newPostings;
+                        changesDuringRebuild.forEach(Runnable::run);
+                    }
+                    changesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Every query term must match a term or term prefix; a blank query matches every active product.
+    // Ids come back by descending relevance (newest first without a query). Facets are counted in
+    // the same pass; each facet ignores its own filter so clients can show the alternatives.
+    public SearchResult search(String query, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        List<String> queryTerms = tokenize(query).distinct().toList();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = queryTerms.isEmpty() ? null : scoreQuery(queryTerms);
+            Collection<IndexedProduct> candidates = scores == null
+                    ? documents.values()
+                    : scores.keySet().stream().map(documents::get).toList();
+
+            Map<Integer, FacetCount> categoryCounts = new HashMap<>();
+            long[] priceCounts = PRICE_RANGES.newCounts();
+            long[] carbonCounts = CARBON_RANGES.newCounts();
+            long[] ecoPointCounts = ECO_POINT_RANGES.newCounts();
+            List<Long> ids = new ArrayList<>();
+
+            for (IndexedProduct document : candidates) {
+                boolean categoryMatches = categoryId == null || categoryId.equals(document.categoryId());
+                boolean priceMatches = (minPrice == null || document.price().compareTo(minPrice) >= 0)
+                        && (maxPrice == null || document.price().compareTo(maxPrice) <= 0);
+                if (priceMatches) {
+                    FacetCount categoryCount = categoryCounts.computeIfAbsent(document.categoryId(),
+                            id -> new FacetCount(String.valueOf(id), document.categoryName(), 0));
+                    categoryCount.setCount(categoryCount.getCount() + 1);
+                }
+                if (categoryMatches) {
+                    PRICE_RANGES.count(priceCounts, document.price());
+                }
+                if (categoryMatches && priceMatches) {
+                    ids.add(document.id());
+                    CARBON_RANGES.count(carbonCounts, document.footprint());
+                    ECO_POINT_RANGES.count(ecoPointCounts, BigDecimal.valueOf(document.ecoPoints()));
+                }
+            }
+
+            Comparator<Long> newestFirst = Comparator.reverseOrder();
+            ids.sort(scores == null
+                    ? newestFirst
+                    : Comparator.<Long>comparingDouble(scores::get).reversed().thenComparing(newestFirst));
+
+            ProductSearchFacets facets = ProductSearchFacets.builder()
+                    .categories(categoryCounts.values().stream()
+                            .sorted(Comparator.comparingLong(FacetCount::getCount).reversed()
+                                    .thenComparing(FacetCount::getLabel))
+                            .toList())
+                    .priceRanges(PRICE_RANGES.toFacets(priceCounts))
+                    .carbonRanges(CARBON_RANGES.toFacets(carbonCounts))
+                    .ecoPointRanges(ECO_POINT_RANGES.toFacets(ecoPointCounts))
+                    .build();
+            return new SearchResult(ids, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreQuery(List<String> queryTerms) {
+        Map<Long, Double> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Double> termScores = scoreTerm(queryTerm);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    // Snapshot is taken now (inside the transaction); the index changes only once it commits.
+    public void indexAfterCommit(Product product) {
+        if (product.isArchived()) {
+            removeAfterCommit(product.getId());
+            return;
+        }
+        IndexedProduct document = new IndexedProduct(
+                product.getId(), product.getName(), product.getDescription(),
+                product.getCategory().getId(), product.getCategory().getName(),
+                product.getPrice(), product.getCradleToWarehouseFootprint(), product.getEcoPoints()
+        );
+        AfterCommit.run(() -> apply(() -> {
+            removeDocument(document.id());
+            documents.put(document.id(), document);
+            addPostings(postings, document);
+        }));
+    }
+
+    public void removeAfterCommit(Long productId) {
+        AfterCommit.run(() -> apply(() -> removeDocument(productId)));
+    }
+
+    // Changes work on whatever maps are current, so a replay lands on the rebuilt ones
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String queryTerm) {
+        Map<Long, Double> scores = new HashMap<>();
+        String upperBound = queryTerm + Character.MAX_VALUE;
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(queryTerm, true, upperBound, false).entrySet()) {
+            double factor = entry.getKey().equals(queryTerm) ? 1.0 : PREFIX_FACTOR;
+            double idf = Math.log(1.0 + (double) documents.size() / entry.getValue().size());
+            for (Map.Entry<Long, Integer> posting : entry.getValue().entrySet()) {
+                // a product matching several expansions keeps its best one
+                scores.merge(posting.getKey(), factor * idf * posting.getValue(), Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeDocument(Long productId) {
+        IndexedProduct previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : termWeights(previous).keySet()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addPostings(NavigableMap<String, Map<Long, Integer>> target, IndexedProduct document) {
+        termWeights(document).forEach((term, weight) ->
+                target.computeIfAbsent(term, key -> new HashMap<>()).put(document.id(), weight));
+    }
+
+    private static Map<String, Integer> termWeights(IndexedProduct document) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(document.name()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(document.categoryName()).forEach(term -> weights.merge(term, CATEGORY_WEIGHT, Integer::sum));
+        tokenize(document.description()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        return weights;
+    }
+
+    private static Stream<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Stream.empty();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty());
+    }
+
+    public record SearchResult(List<Long> ids, ProductSearchFacets facets) {
+    }
+
+    private record IndexedProduct(
+            Long id,
+            String name,
+            String description,
+            Integer categoryId,
+            String categoryName,
+            BigDecimal price,
+            BigDecimal footprint,
+            Integer ecoPoints
+    ) {
+    }
+
+    // Buckets [b0, b1), [b1, b2), ..., [bn, +inf)
+    private static class RangeFacet {
+
+        private final BigDecimal[] lowerBounds;
+
+        private RangeFacet(long... lowerBounds) {
+            this.lowerBounds = Arrays.stream(lowerBounds).mapToObj(BigDecimal::valueOf).toArray(BigDecimal[]::new);
+        }
+
+        private long[] newCounts() {
+            return new long[lowerBounds.length];
+        }
+
+        private void count(long[] counts, BigDecimal value) {
+            if (value == null) {
+                return;
+            }
+            for (int i = lowerBounds.length - 1; i >= 0; i--) {
+                if (value.compareTo(lowerBounds[i]) >= 0) {
+                    counts[i]++;
+                    return;
+                }
+            }
+        }
+
+        private List<FacetCount> toFacets(long[] counts) {
+            List<FacetCount> facets = new ArrayList<>(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                String from = lowerBounds[i].toPlainString();
+                String label = i + 1 < lowerBounds.length
+                        ? from + "-" + lowerBounds[i + 1].toPlainString()
+                        : from + "+";
+                facets.add(new FacetCount(from, label, counts[i]));
+            }
+            return facets;
+        }
+    }
+}
@@ -4,24 +4,33 @@ import com.ecobazaarx.v2.dto.*;
 import com.ecobazaarx.v2.model.*;
 import com.ecobazaarx.v2.repository.*;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Path;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -37,6 +46,15 @@ public class ProductService {
     private final ProductMaterialRepository productMaterialRepository;
     private final ProductPackagingRepository productPackagingRepository;
     private final ProductManufacturingRepository productManufacturingRepository;
+    private final CartRepository cartRepository;
+    private final CurrentUserService currentUserService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductDetailCache productDetailCache;
+    private final CatalogVersion catalogVersion;
+    private final RelatedProductsIndex relatedProductsIndex;
+
+    @Value("${application.products.batch.max-ids:100}")
+    private int maxBatchIds;
 
     @Transactional
     public ProductResponseDto createProduct(ProductCreateRequest request, UserDetails sellerDetails) {
@@ -71,6 +89,8 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
         saveCarbonComponents(savedProduct, request);
+        productSearchIndex.indexAfterCommit(savedProduct);
+        catalogVersion.productChangedAfterCommit();
         return mapToResponseDto(savedProduct);
     }
 
@@ -78,55 +98,249 @@ public class ProductService {
     public Page<ProductResponseDto> getAllProducts(Pageable pageable) {
         Specification<Product> notArchived = (root, query, builder) -> builder.isFalse(root.get("isArchived"));
         Page<Product> productPage = productRepository.findAll(notArchived, pageable);
-        return productPage.map(this::mapToResponseDto);
+        return mapToResponsePage(productPage);
     }
 
     @Transactional(readOnly = true)
     public ProductResponseDto getProductById(Long id) {
-        Product product = findProductById(id);
-        return mapToResponseDto(product);
+        return productDetailCache.get(id, key -> productRepository.findResponseDtosByIdIn(List.of(key)).stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Product not found")));
+    }
+
+    // One IN query for the ids not already cached; order follows the request, duplicates collapse
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        if (ids.size() > maxBatchIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchIds + " ids per request");
+        }
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Map<Long, ProductResponseDto> found = productDetailCache.getAll(distinctIds, missing ->
+                productRepository.findResponseDtosByIdIn(List.copyOf(missing)).stream()
+                        .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity())));
+        return ProductBatchResponse.builder()
+                .products(distinctIds.stream().map(found::get).filter(Objects::nonNull).toList())
+                .missingIds(distinctIds.stream().filter(id -> !found.containsKey(id)).toList())
+                .build();
+    }
+
+    // Single-column lookup, so a revalidation never builds the DTO
+    @Transactional(readOnly = true)
+    public String getProductETag(Long id) {
+        long version = productRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+        return catalogVersion.productETag(id, version);
+    }
+
+    public String getCatalogETag() {
+        return catalogVersion.listingETag();
     }
 
     @Transactional(readOnly = true)
-    public Page<ProductResponseDto> searchProducts(String query, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        Specification<Product> spec = (root, criteriaQuery, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(criteriaBuilder.isFalse(root.get("isArchived")));
-
-            if (query != null && !query.isBlank()) {
-                String likePattern = "%" + query.toLowerCase() + "%";
-                // FIX: Search Name OR Description OR Category Name
-                Predicate nameMatch = criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), likePattern);
-//                Predicate descMatch = criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), likePattern);
-                Predicate catMatch = criteriaBuilder.like(criteriaBuilder.lower(root.get("category").get("name")), likePattern);
-
-                predicates.add(criteriaBuilder.or(nameMatch, catMatch));
+    public ProductSearchResponse searchProducts(String query, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        // Text matching, filters and facet counts all come from the in-memory index
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(query, categoryId, minPrice, maxPrice);
+        List<Long> matchingIds = result.ids();
+
+        Page<ProductResponseDto> page;
+        if (matchingIds.isEmpty()) {
+            page = Page.empty(pageable);
+        } else if (isDefaultSort(pageable.getSort())) {
+            int from = (int) Math.min(pageable.getOffset(), matchingIds.size());
+            int to = Math.min(from + pageable.getPageSize(), matchingIds.size());
+            page = new PageImpl<>(findResponseDtos(matchingIds.subList(from, to)), pageable, matchingIds.size());
+        } else {
+            // An explicit sort other than the default id DESC sort is applied by the database
+            Specification<Product> spec = (root, criteriaQuery, builder) -> builder.and(
+                    root.get("id").in(matchingIds),
+                    builder.isFalse(root.get("isArchived"))
+            );
+            page = mapToResponsePage(productRepository.findAll(spec, pageable));
+        }
+
+        return ProductSearchResponse.builder()
+                .content(page.getContent())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .number(page.getNumber())
+                .size(page.getSize())
+                .numberOfElements(page.getNumberOfElements())
+                .first(page.isFirst())
+                .last(page.isLast())
+                .empty(page.isEmpty())
+                .facets(result.facets())
+                .build();
+    }
+
+    // The index orders by relevance (newest first without a query), which stands in for the default
+    // id DESC sort only; id ASC and every other sort go to the database
+    private boolean isDefaultSort(Sort sort) {
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        Sort.Order id = sort.getOrderFor("id");
+        return id != null && id.isDescending() && sort.stream().count() == 1;
+    }
+
+    // Keyset ("seek") pagination: continue after the last (sort value, id) served instead of
+    // using OFFSET, and fetch one extra row to learn whether more exist, so no COUNT query runs.
+    @Transactional(readOnly = true)
+    public ProductSliceResponse scrollProducts(Sort.Order order, String cursor, int size) {
+        Specification<Product> notArchived = (root, query, builder) -> builder.isFalse(root.get("isArchived"));
+        return scroll(notArchived, order, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSliceResponse scrollProductsBySeller(UserDetails sellerDetails, Sort.Order order, String cursor, int size) {
+        Long sellerId = currentUserService.getUserId(sellerDetails);
+        Specification<Product> spec = (root, query, builder) -> builder.and(
+                builder.isFalse(root.get("isArchived")),
+                builder.equal(root.get("seller").get("id"), sellerId)
+        );
+        return scroll(spec, order, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductSliceResponse scrollSearch(String query, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                             Sort.Order order, String cursor, int size) {
+        List<Long> matchingIds = productSearchIndex.search(query, categoryId, minPrice, maxPrice).ids();
+        if (!isDefaultSort(Sort.by(order))) {
+            if (matchingIds.isEmpty()) {
+                return ProductSliceResponse.builder().content(List.of()).size(size).build();
             }
-            // ... (rest of filters remain same)
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+            Specification<Product> spec = (root, criteriaQuery, builder) -> builder.and(
+                    root.get("id").in(matchingIds),
+                    builder.isFalse(root.get("isArchived"))
+            );
+            return scroll(spec, order, cursor, size);
+        }
+
+        // Relevance order only exists in the index, so the cursor is a position in the ranked list
+        requirePositive(size);
+        ProductCursor after = ProductCursor.decode(cursor);
+        int from = 0;
+        if (after != null) {
+            if (!ProductCursor.RELEVANCE.equals(after.sortKey())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            int position = parseCursorValue(after, Integer::valueOf);
+            if (position > 0 && position <= matchingIds.size() && matchingIds.get(position - 1).equals(after.id())) {
+                from = position;
+            } else {
+                // Ranking shifted since the last page; re-anchor on the last product served
+                int index = matchingIds.indexOf(after.id());
+                from = index >= 0 ? index + 1 : Math.min(position, matchingIds.size());
+            }
+        }
+        int to = Math.min(from + size, matchingIds.size());
+        List<Long> pageIds = matchingIds.subList(from, to);
+        boolean hasNext = to < matchingIds.size();
+        return ProductSliceResponse.builder()
+                .content(findResponseDtos(pageIds))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(hasNext
+                        ? new ProductCursor(ProductCursor.RELEVANCE, String.valueOf(to), pageIds.get(pageIds.size() - 1)).encode()
+                        : null)
+                .build();
+    }
+
+    private ProductSliceResponse scroll(Specification<Product> spec, Sort.Order order, String cursor, int size) {
+        requirePositive(size);
+        String sortKey = order.getProperty() + "," + order.getDirection().name().toLowerCase();
+        Sort sort = order.getProperty().equals("id")
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+
+        ProductCursor after = ProductCursor.decode(cursor);
+        Specification<Product> seek = spec;
+        if (after != null) {
+            if (!after.sortKey().equals(sortKey)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            seek = spec.and(seekAfter(order, after));
+        }
+
+        List<Product> rows = productRepository.findBy(seek, query -> query.sortBy(sort).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<Product> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Product last = content.get(content.size() - 1);
+            String value = ProductSortField.fromProperty(order.getProperty()).cursorValue(last);
+            nextCursor = new ProductCursor(sortKey, value, last.getId()).encode();
+        }
+        return ProductSliceResponse.builder()
+                .content(mapToResponseDtos(content))
+                .size(size)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Specification<Product> seekAfter(Sort.Order order, ProductCursor after) {
+        ProductSortField field = ProductSortField.fromProperty(order.getProperty());
+        boolean ascending = order.isAscending();
+        if (field == ProductSortField.ID) {
+            return (root, query, builder) -> ascending
+                    ? builder.greaterThan(root.get("id"), after.id())
+                    : builder.lessThan(root.get("id"), after.id());
+        }
+        Comparable<?> value = parseCursorValue(after, field::parseCursorValue);
+        return seekAfter(field.getProperty(), value, after.id(), ascending);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Product> seekAfter(String property, Comparable value, Long id, boolean ascending) {
+        return (root, query, builder) -> {
+            Path<Comparable> field = root.get(property);
+            Path<Long> idPath = root.get("id");
+            return builder.or(
+                    ascending ? builder.greaterThan(field, value) : builder.lessThan(field, value),
+                    builder.and(
+                            builder.equal(field, value),
+                            ascending ? builder.greaterThan(idPath, id) : builder.lessThan(idPath, id)
+                    )
+            );
         };
-        Page<Product> productPage = productRepository.findAll(spec, pageable);
-        return productPage.map(this::mapToResponseDto);
+    }
+
+    private <T> T parseCursorValue(ProductCursor cursor, Function<String, T> parser) {
+        try {
+            return parser.apply(cursor.value());
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private void requirePositive(int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be at least 1");
+        }
     }
 
     @Transactional(readOnly = true)
     public Page<ProductResponseDto> getProductsBySeller(UserDetails sellerDetails, Pageable pageable) {
-        User seller = findUserByEmail(sellerDetails.getUsername());
+        Long sellerId = currentUserService.getUserId(sellerDetails);
         Specification<Product> spec = (root, query, builder) -> builder.isFalse(root.get("isArchived"));
         Page<Product> productPage = productRepository.findAll(
-                spec.and((root, q, cb) -> cb.equal(root.get("seller").get("id"), seller.getId())),
+                spec.and((root, q, cb) -> cb.equal(root.get("seller").get("id"), sellerId)),
                 pageable
         );
-        return productPage.map(this::mapToResponseDto);
+        return mapToResponsePage(productPage);
     }
 
     @Transactional
     public ProductResponseDto updateSellerProduct(Long productId, ProductCreateRequest request, UserDetails sellerDetails) {
-        User seller = findUserByEmail(sellerDetails.getUsername());
+        Long sellerId = currentUserService.getUserId(sellerDetails);
         Product product = findProductById(productId);
-        if (!product.getSeller().getId().equals(seller.getId())) {
+        if (!product.getSeller().getId().equals(sellerId)) {
             throw new AccessDeniedException("Unauthorized");
         }
+        if (product.getPrice().compareTo(request.getPrice()) != 0) {
+            // Carts holding this product keep running totals at the old price
+            cartRepository.markTotalsStaleForProduct(productId);
+        }
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPrice(request.getPrice());
@@ -140,26 +354,48 @@ public class ProductService {
             TransportZone t = transportZoneRepository.findById(request.getTransportZoneId()).orElseThrow();
             product.setTransportZone(t);
         }
-        return mapToResponseDto(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(savedProduct);
+        productDetailCache.evictAfterCommit(productId);
+        return mapToResponseDto(savedProduct);
     }
 
     @Transactional
     public void archiveSellerProduct(Long productId, UserDetails sellerDetails) {
-        User seller = findUserByEmail(sellerDetails.getUsername());
+        Long sellerId = currentUserService.getUserId(sellerDetails);
         Product product = productRepository.findById(productId).orElseThrow();
-        if (!product.getSeller().getId().equals(seller.getId())) throw new AccessDeniedException("Unauthorized");
+        if (!product.getSeller().getId().equals(sellerId)) throw new AccessDeniedException("Unauthorized");
         product.setArchived(true);
         productRepository.save(product);
+        productSearchIndex.removeAfterCommit(productId);
+        productDetailCache.evictAfterCommit(productId);
     }
 
     @Transactional(readOnly = true)
     public Page<ProductResponseDto> getAllProductsAsAdmin(Pageable pageable) {
-        return productRepository.findAll(pageable).map(this::mapToResponseDto);
+        return mapToResponsePage(productRepository.findAll(pageable));
+    }
+
+    // Rows are handed to the consumer as they are read, so memory doesn't grow with the page size.
+    // Runs its own transaction, since streamed responses are written after the controller returns.
+    @Transactional(readOnly = true)
+    public void streamAllProductsAsAdmin(Pageable pageable, Consumer<ProductResponseDto> consumer) {
+        try (Stream<ProductResponseDto> products = productRepository.streamResponseDtos(pageable)) {
+            products.forEach(consumer);
+        }
     }
 
     // --- FIXED: Related Products Logic ---
     @Transactional(readOnly = true)
     public List<ProductResponseDto> getRelatedProducts(Long productId) {
+        List<Long> relatedIds = relatedProductsIndex.find(productId);
+        if (relatedIds != null) {
+            // Skip anything archived since the last rebuild
+            return findResponseDtos(relatedIds).stream()
+                    .filter(dto -> !dto.isArchived())
+                    .toList();
+        }
+        // Not in the last rebuild (new product, or none has finished yet): query directly
         Product product = findProductById(productId);
         Pageable top5 = PageRequest.of(0, 5);
 
@@ -180,9 +416,7 @@ public class ProductService {
             relatedProducts = productRepository.findAll(anyActive, top5).getContent();
         }
 
-        return relatedProducts.stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapToResponseDtos(relatedProducts);
     }
 
     // ... (Keep helper methods: saveCarbonComponents, calculations, mapToResponseDto, findUserByEmail, findProductById) ...
@@ -211,6 +445,28 @@ public class ProductService {
                 .build();
     }
 
+    // List variant of mapToResponseDto: one projection query for the whole list instead of
+    // lazy-loading category, seller and transport zone for each product. Keeps the input order.
+    public List<ProductResponseDto> mapToResponseDtos(List<Product> products) {
+        return findResponseDtos(products.stream().map(Product::getId).toList());
+    }
+
+    public List<ProductResponseDto> findResponseDtos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductResponseDto> dtosById = productRepository.findResponseDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductResponseDto::getId, Function.identity()));
+        return ids.stream()
+                .map(dtosById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Page<ProductResponseDto> mapToResponsePage(Page<Product> page) {
+        return new PageImpl<>(mapToResponseDtos(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
     private User findUserByEmail(String email) {
         return userRepository.findByEmail(email).orElseThrow(() -> new EntityNotFoundException("User not found"));
     }
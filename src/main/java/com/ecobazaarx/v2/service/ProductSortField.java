@@ -0,0 +1,69 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The only sorts product listings accept. Each one is backed by an (is_archived, column)
+// index on products (see Product), so a listing never has to filesort the whole table.
+public enum ProductSortField {
+    ID("id", Product::getId, Long::valueOf),
+    PRICE("price", Product::getPrice, BigDecimal::new),
+    CREATED_AT("createdAt", Product::getCreatedAt, LocalDateTime::parse),
+    AVERAGE_RATING("averageRating", Product::getAverageRating, BigDecimal::new),
+    CRADLE_TO_WAREHOUSE_FOOTPRINT("cradleToWarehouseFootprint", Product::getCradleToWarehouseFootprint, BigDecimal::new),
+    ECO_POINTS("ecoPoints", Product::getEcoPoints, Integer::valueOf);
+
+    private final String property;
+    private final Function<Product, Comparable<?>> getter;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSortField(String property, Function<Product, Comparable<?>> getter, Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.getter = getter;
+        this.parser = parser;
+    }
+
+    public static ProductSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort field: " + property
+                        + ". Allowed: " + Arrays.stream(values()).map(field -> field.property).collect(Collectors.joining(", "))));
+    }
+
+    // Parses the "field,direction" request parameter used by the listing endpoints
+    public static Sort.Order toOrder(String[] sort) {
+        Sort.Direction direction = (sort.length > 1 && sort[1].equalsIgnoreCase("asc")) ?
+                Sort.Direction.ASC : Sort.Direction.DESC;
+        return new Sort.Order(direction, fromProperty(sort[0]).property);
+    }
+
+    // Ties are broken by id so offset pages are stable
+    public static Sort toSort(String[] sort) {
+        Sort.Order order = toOrder(sort);
+        return order.getProperty().equals(ID.property)
+                ? Sort.by(order)
+                : Sort.by(order, new Sort.Order(order.getDirection(), ID.property));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String cursorValue(Product product) {
+        Comparable<?> value = getter.apply(product);
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value);
+    }
+
+    public Comparable<?> parseCursorValue(String value) {
+        return parser.apply(value);
+    }
+}
@@ -1,5 +1,7 @@
 package com.ecobazaarx.v2.service;
 
+import com.ecobazaarx.v2.config.PrincipalCache;
+import com.ecobazaarx.v2.config.TokenRevocationRegistry;
 import com.ecobazaarx.v2.dto.ChangePasswordRequest;
 import com.ecobazaarx.v2.dto.ProfileResponse;
 import com.ecobazaarx.v2.dto.ProfileUpdateRequest;
@@ -20,6 +22,8 @@ public class ProfileService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @Transactional(readOnly = true)
     public ProfileResponse getProfile(UserDetails currentUser) {
@@ -30,10 +34,15 @@ public class ProfileService {
     @Transactional
     public ProfileResponse updateProfile(UserDetails currentUser, ProfileUpdateRequest request) {
         User user = findUserByEmail(currentUser.getUsername());
+        String previousEmail = user.getEmail();
 
+        if (!previousEmail.equals(request.getEmail())) {
+            tokenRevocationRegistry.revoke(user);
+        }
         user.setName(request.getName());
         user.setEmail(request.getEmail());
         User updatedUser = userRepository.save(user);
+        principalCache.evictAfterCommit(previousEmail, updatedUser.getEmail());
         return mapUserToProfileResponse(updatedUser);
     }
 
@@ -50,7 +59,9 @@ public class ProfileService {
         }
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        tokenRevocationRegistry.revoke(user);
         userRepository.save(user);
+        principalCache.evictAfterCommit(user.getEmail());
     }
 
     private User findUserByEmail(String email) {
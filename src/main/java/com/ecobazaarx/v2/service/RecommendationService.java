@@ -3,12 +3,9 @@ package com.ecobazaarx.v2.service;
 import com.ecobazaarx.v2.dto.HomepageRecommendationDto;
 import com.ecobazaarx.v2.dto.ProductResponseDto;
 import com.ecobazaarx.v2.model.Product;
-import com.ecobazaarx.v2.model.User;
 import com.ecobazaarx.v2.repository.OrderItemRepository;
 import com.ecobazaarx.v2.repository.ProductRepository;
-import com.ecobazaarx.v2.repository.UserRepository;
 import com.ecobazaarx.v2.repository.UserViewHistoryRepository;
-import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,7 +14,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,7 +23,7 @@ public class RecommendationService {
     private final OrderItemRepository orderItemRepository;
     private final ProductService productService;
     private final UserViewHistoryRepository viewHistoryRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
     @Transactional(readOnly = true)
     public HomepageRecommendationDto getHomepageRecommendations() {
@@ -49,21 +45,16 @@ public class RecommendationService {
     }
 
     private List<ProductResponseDto> mapProductListToDto(List<Product> products) {
-        return products.stream()
-                .map(productService::mapToResponseDto)
-                .collect(Collectors.toList());
+        return productService.mapToResponseDtos(products);
     }
 
     @Transactional(readOnly = true)
     public List<ProductResponseDto> getRecentlyViewed(UserDetails currentUser) {
-        User user = userRepository.findByEmail(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Long userId = currentUserService.getUserId(currentUser);
 
         Pageable top10 = PageRequest.of(0, 10);
-        List<Product> products = viewHistoryRepository.findRecentlyViewedProductsByUserId(user.getId(), top10);
+        List<Product> products = viewHistoryRepository.findRecentlyViewedProductsByUserId(userId, top10);
 
-        return products.stream()
-                .map(productService::mapToResponseDto)
-                .collect(Collectors.toList());
+        return productService.mapToResponseDtos(products);
     }
 }
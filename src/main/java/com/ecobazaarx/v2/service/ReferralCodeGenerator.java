@@ -0,0 +1,114 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.ReferralSequence;
+import com.ecobazaarx.v2.repository.ReferralSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Collision-free referral codes: every code encodes a unique sequence value, so
+// registration never has to ask the database whether a code is taken.
+// Values are reserved in blocks, one locked row update per block.
+//
+// Code format: 8 Crockford base32 chars of a scrambled 40-bit value plus one
+// check char (9 chars). Legacy codes are 8 hex chars, so the two never overlap.
+@Service
+public class ReferralCodeGenerator {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int VALUE_CHARS = 8;
+    private static final long VALUE_MASK = (1L << 40) - 1;
+    // Odd multiplier, so multiplication mod 2^40 is a bijection
+    private static final long SCRAMBLE_MULTIPLIER = 0x9E3779B97L;
+    private static final int CHECK_MODULUS = 31;
+
+    private final ReferralSequenceRepository referralSequenceRepository;
+    private final TransactionTemplate allocationTransaction;
+    private final int blockSize;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long nextValue;
+    private long blockEnd;
+
+    public ReferralCodeGenerator(
+            ReferralSequenceRepository referralSequenceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.referral.block-size:100}") int blockSize
+    ) {
+        this.referralSequenceRepository = referralSequenceRepository;
+        this.allocationTransaction = new TransactionTemplate(transactionManager);
+        // Commit the reservation on its own so a rolled-back registration can't hand the block out twice
+        this.allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    // A lock rather than synchronized: the block allocation does JDBC, which would pin a virtual thread's carrier
+    public String nextCode() {
+        lock.lock();
+        try {
+            if (nextValue >= blockEnd) {
+                nextValue = allocateBlock();
+                blockEnd = nextValue + blockSize;
+            }
+            return encode(nextValue++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Cheap pre-check before a lookup: rejects new-format codes with a bad check char
+    public boolean isPlausible(String code) {
+        if (code.length() != VALUE_CHARS + 1) {
+            return true;
+        }
+        String value = code.substring(0, VALUE_CHARS);
+        for (int i = 0; i < VALUE_CHARS; i++) {
+            if (ALPHABET.indexOf(value.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return checkChar(value) == code.charAt(VALUE_CHARS);
+    }
+
+    private long allocateBlock() {
+        Long start = allocationTransaction.execute(status -> {
+            ReferralSequence sequence = referralSequenceRepository.findByIdForUpdate(ReferralSequence.SINGLETON_ID)
+                    .orElseGet(() -> new ReferralSequence(ReferralSequence.SINGLETON_ID, 1L));
+            long first = sequence.getNextValue();
+            sequence.setNextValue(first + blockSize);
+            referralSequenceRepository.save(sequence);
+            return first;
+        });
+        if (start == null || start + blockSize > VALUE_MASK) {
+            throw new IllegalStateException("Referral code space exhausted");
+        }
+        return start;
+    }
+
+    private static String encode(long value) {
+        long scrambled = (value * SCRAMBLE_MULTIPLIER) & VALUE_MASK;
+        scrambled ^= scrambled >>> 20;
+
+        char[] chars = new char[VALUE_CHARS];
+        for (int i = VALUE_CHARS - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (scrambled & 31));
+            scrambled >>>= 5;
+        }
+        String body = new String(chars);
+        return body + checkChar(body);
+    }
+
+    // Position-weighted sum mod a prime catches any single wrong char and adjacent swaps,
+    // except between 0 and Z, which are 31 apart
+    private static char checkChar(String body) {
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (i + 1) * ALPHABET.indexOf(body.charAt(i));
+        }
+        return ALPHABET.charAt(sum % CHECK_MODULUS);
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.repository.OrderItemRepository;
+import com.ecobazaarx.v2.repository.ProductRepository;
+import com.ecobazaarx.v2.repository.UserViewHistoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Related products, precomputed in the background so the endpoint is a lookup.
+// Ranking: products bought in the same order, then products viewed by the same user,
+// then the newest products of the same category, then the newest products overall.
+// Stored compactly: sorted id/category arrays for every active product, the newest few ids
+// per category, and co-purchase/co-view lists only for products that have any.
+// Per instance, like the search index.
+@Slf4j
+@Service
+public class RelatedProductsIndex {
+
+    private static final int CO_PURCHASE_WEIGHT = 3;
+    private static final int CO_VIEW_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final UserViewHistoryRepository userViewHistoryRepository;
+    private final CatalogVersion catalogVersion;
+    private final Timer rebuildTimer;
+    private final int size;
+    private final int historyDays;
+    private final int maxBasketSize;
+
+    private volatile Snapshot snapshot;
+
+    public RelatedProductsIndex(
+            ProductRepository productRepository,
+            OrderItemRepository orderItemRepository,
+            UserViewHistoryRepository userViewHistoryRepository,
+            CatalogVersion catalogVersion,
+            MeterRegistry meterRegistry,
+            @Value("${application.products.related.size:5}") int size,
+            @Value("${application.products.related.history-days:180}") int historyDays,
+            @Value("${application.products.related.max-basket-size:20}") int maxBasketSize
+    ) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.userViewHistoryRepository = userViewHistoryRepository;
+        this.catalogVersion = catalogVersion;
+        this.rebuildTimer = Timer.builder("products.related.rebuild")
+                .description("Time to recompute the related products index")
+                .register(meterRegistry);
+        this.size = size;
+        this.historyDays = historyDays;
+        this.maxBasketSize = maxBasketSize;
+    }
+
+    // null if the product was not active at the last rebuild (or none has run yet)
+    public List<Long> find(Long productId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(current.productIds(), productId);
+        if (index < 0) {
+            return null;
+        }
+
+        Set<Long> related = new LinkedHashSet<>();
+        long[] signals = current.coSignals().get(productId);
+        if (signals != null) {
+            Arrays.stream(signals).forEach(related::add);
+        }
+        long[] sameCategory = current.newestByCategory().getOrDefault(current.productCategories()[index], new long[0]);
+        fill(related, sameCategory, productId);
+        if (related.isEmpty()) {
+            fill(related, current.newest(), productId);
+        }
+        return List.copyOf(related);
+    }
+
+    private void fill(Set<Long> related, long[] candidates, long productId) {
+        for (long candidate : candidates) {
+            if (related.size() >= size) {
+                return;
+            }
+            if (candidate != productId) {
+                related.add(candidate);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${application.products.related.rebuild-interval:3600000}",
+            fixedDelayString = "${application.products.related.rebuild-interval:3600000}"
+    )
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+
+        // Newest first, so the per-category and global "newest" lists are just the first ids seen
+        List<Object[]> products = productRepository.findActiveProductCategories();
+        long[] productIds = new long[products.size()];
+        int[] productCategories = new int[products.size()];
+        Map<Integer, List<Long>> newestByCategory = new HashMap<>();
+        long[] newest = products.stream().limit(size + 1L).mapToLong(row -> (Long) row[0]).toArray();
+        for (Object[] row : products) {
+            List<Long> categoryIds = newestByCategory.computeIfAbsent((Integer) row[1], id -> new ArrayList<>());
+            if (categoryIds.size() <= size) {
+                categoryIds.add((Long) row[0]);
+            }
+        }
+        // Re-sorted by id for binary search
+        products.sort(Comparator.comparingLong(row -> (Long) row[0]));
+        for (int i = 0; i < products.size(); i++) {
+            productIds[i] = (Long) products.get(i)[0];
+            productCategories[i] = (Integer) products.get(i)[1];
+        }
+
+        Map<Long, Map<Long, Integer>> scores = new HashMap<>();
+        try (Stream<Object[]> rows = orderItemRepository.streamOrderProductsSince(since)) {
+            countPairs(rows, scores, CO_PURCHASE_WEIGHT);
+        }
+        try (Stream<Object[]> rows = userViewHistoryRepository.streamViewedProductsSince(since)) {
+            countPairs(rows, scores, CO_VIEW_WEIGHT);
+        }
+
+        Map<Long, long[]> coSignals = new HashMap<>();
+        scores.forEach((productId, productScores) -> {
+            long[] top = productScores.entrySet().stream()
+                    .filter(entry -> Arrays.binarySearch(productIds, entry.getKey()) >= 0)
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                    .limit(size)
+                    .mapToLong(Map.Entry::getKey)
+                    .toArray();
+            if (top.length > 0) {
+                coSignals.put(productId, top);
+            }
+        });
+
+        Map<Integer, long[]> newestArrays = new HashMap<>();
+        newestByCategory.forEach((categoryId, ids) ->
+                newestArrays.put(categoryId, ids.stream().mapToLong(Long::longValue).toArray()));
+        snapshot = new Snapshot(productIds, productCategories, newestArrays, newest, coSignals);
+        // Related lists are part of the cached catalog responses
+        catalogVersion.productChangedAfterCommit();
+
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Rebuilt related products for {} products ({} with co-purchase/co-view data) in {} ms",
+                productIds.length, coSignals.size(), elapsed / 1_000_000);
+    }
+
+    // Rows are (group id, product id) ordered by group: an order, or a user's views newest first.
+    // Large groups are cut to their first products so one bulk order can't dominate the pairs.
+    private void countPairs(Stream<Object[]> rows, Map<Long, Map<Long, Integer>> scores, int weight) {
+        Object[] currentGroup = {null};
+        Set<Long> basket = new LinkedHashSet<>();
+        rows.forEach(row -> {
+            if (!Objects.equals(row[0], currentGroup[0])) {
+                addPairs(basket, scores, weight);
+                basket.clear();
+                currentGroup[0] = row[0];
+            }
+            if (basket.size() < maxBasketSize) {
+                basket.add((Long) row[1]);
+            }
+        });
+        addPairs(basket, scores, weight);
+    }
+
+    private static void addPairs(Set<Long> basket, Map<Long, Map<Long, Integer>> scores, int weight) {
+        if (basket.size() < 2) {
+            return;
+        }
+        for (Long a : basket) {
+            Map<Long, Integer> related = scores.computeIfAbsent(a, id -> new HashMap<>());
+            for (Long b : basket) {
+                if (!a.equals(b)) {
+                    related.merge(b, weight, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private record Snapshot(
+            long[] productIds,
+            int[] productCategories,
+            Map<Integer, long[]> newestByCategory,
+            long[] newest,
+            Map<Long, long[]> coSignals
+    ) {
+    }
+}
@@ -30,6 +30,7 @@ public class ReviewService {
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
     private final GamificationService gamificationService;
+    private final ProductDetailCache productDetailCache;
     private static final int POINTS_FOR_REVIEW = 25;
 
     @Transactional
@@ -74,6 +75,7 @@ public class ReviewService {
         }
         product.setTotalReviews((int) reviewCount);
         productRepository.save(product);
+        productDetailCache.evictAfterCommit(product.getId());
     }
 
     private User findUserByEmail(String email) {
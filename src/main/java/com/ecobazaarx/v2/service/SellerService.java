@@ -22,6 +22,8 @@ public class SellerService {
     private final UserRepository userRepository;
     private final ProfileService profileService;
     private final PayoutDetailsRepository payoutDetailsRepository;
+    private final CurrentUserService currentUserService;
+    private final ProductDetailCache productDetailCache;
 
     @Transactional
     public ProfileResponse applyToBeSeller(UserDetails currentUser, SellerApplicationRequest request) {
@@ -54,26 +56,28 @@ public class SellerService {
         seller.setStoreDescription(request.getStoreDescription());
 
         userRepository.save(seller);
+        // The store name is part of every cached product DTO
+        productDetailCache.evictAllAfterCommit();
 
         return profileService.mapUserToProfileResponse(seller);
     }
 
     @Transactional(readOnly = true)
     public PayoutDetailsDto getPayoutDetails(UserDetails sellerDetails) {
-        User seller = findUserByEmail(sellerDetails.getUsername());
+        Long sellerId = currentUserService.getUserId(sellerDetails);
 
-        PayoutDetails details = payoutDetailsRepository.findById(seller.getId())
-                .orElse(new PayoutDetails(seller));
+        PayoutDetails details = payoutDetailsRepository.findById(sellerId)
+                .orElseGet(PayoutDetails::new);
 
         return mapToDto(details);
     }
 
     @Transactional
     public PayoutDetailsDto updatePayoutDetails(UserDetails sellerDetails, PayoutDetailsDto dto) {
-        User seller = findUserByEmail(sellerDetails.getUsername());
+        User seller = currentUserService.getUserReference(sellerDetails);
 
         PayoutDetails details = payoutDetailsRepository.findById(seller.getId())
-                .orElse(new PayoutDetails(seller));
+                .orElseGet(() -> new PayoutDetails(seller));
 
         details.setBankName(dto.getBankName());
         details.setAccountHolderName(dto.getAccountHolderName());
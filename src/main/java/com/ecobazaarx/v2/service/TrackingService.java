@@ -4,7 +4,6 @@ import com.ecobazaarx.v2.model.Product;
 import com.ecobazaarx.v2.model.User;
 import com.ecobazaarx.v2.model.UserViewHistory;
 import com.ecobazaarx.v2.repository.ProductRepository;
-import com.ecobazaarx.v2.repository.UserRepository;
 import com.ecobazaarx.v2.repository.UserViewHistoryRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -17,13 +16,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class TrackingService {
 
     private final UserViewHistoryRepository viewHistoryRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final ProductRepository productRepository;
 
     @Transactional
     public void logProductView(Long productId, UserDetails currentUser) {
-        User user = userRepository.findByEmail(currentUser.getUsername())
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        User user = currentUserService.getUserReference(currentUser);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
 
@@ -0,0 +1,363 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.config.BoundedPasswordEncoder;
+import com.ecobazaarx.v2.dto.RegisterRequest;
+import com.ecobazaarx.v2.dto.UserImportError;
+import com.ecobazaarx.v2.dto.UserImportResponse;
+import com.ecobazaarx.v2.model.Role;
+import com.ecobazaarx.v2.model.RoleName;
+import com.ecobazaarx.v2.model.SellerApplicationStatus;
+import com.ecobazaarx.v2.repository.RoleRepository;
+import com.ecobazaarx.v2.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Bulk version of AuthenticationService.register for partner customer lists.
+// Rows are read as a stream and written in batches: one validation query, one
+// parallel hashing pass and three JDBC batch inserts (users_tb, user_roles, carts)
+// per batch. Bad rows are reported and skipped; they never fail the whole import.
+@Service
+public class UserImportService {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users_tb (name, email, password, created_at, referral_code, referred_by_user_id, " +
+            "seller_status, eco_points, rank_level, total_order_count, lifetime_total_carbon, lifetime_average_carbon, " +
+            "is_account_non_expired, is_account_non_locked, is_credentials_non_expired, is_enabled, token_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, true, true, true, true, 0)";
+    private static final String SELECT_IDS_SQL = "SELECT id, email FROM users_tb WHERE email IN (:emails)";
+    private static final String INSERT_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_CART_SQL = "INSERT INTO carts (user_id) VALUES (?)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ReferralCodeGenerator referralCodeGenerator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public UserImportService(
+            UserRepository userRepository,
+            RoleRepository roleRepository,
+            PasswordEncoder passwordEncoder,
+            ReferralCodeGenerator referralCodeGenerator,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${application.import.batch-size:500}") int batchSize
+    ) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.referralCodeGenerator = referralCodeGenerator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    // Accepts text/csv (header: name,email,password[,referralCode]) or application/x-ndjson
+    public UserImportResponse importUsers(InputStream body, String contentType) throws IOException {
+        Role customerRole = roleRepository.findByName(RoleName.ROLE_CUSTOMER)
+                .orElseThrow(() -> new RuntimeException("Error: Default role ROLE_CUSTOMER not found."));
+
+        ImportReport report = new ImportReport();
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowReader rows = isCsv(contentType) ? csvRows(reader) : ndjsonRows(reader);
+
+        int rowNumber = 0;
+        while (true) {
+            rowNumber++;
+            RegisterRequest request;
+            try {
+                request = rows.next();
+            } catch (IllegalArgumentException e) {
+                report.fail(rowNumber, null, e.getMessage());
+                continue;
+            }
+            if (request == null) {
+                break;
+            }
+            batch.add(new ImportRow(rowNumber, request));
+            if (batch.size() >= batchSize) {
+                processBatch(batch, customerRole, seenEmails, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            processBatch(batch, customerRole, seenEmails, report);
+        }
+
+        return UserImportResponse.builder()
+                .totalRows(report.imported + report.errors.size())
+                .imported(report.imported)
+                .failed(report.errors.size())
+                .errors(report.errors)
+                .build();
+    }
+
+    private void processBatch(List<ImportRow> batch, Role role, Set<String> seenEmails, ImportReport report) {
+        List<ImportRow> valid = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            String error = validate(row.request);
+            if (error == null && !seenEmails.add(row.email())) {
+                error = "Duplicate email in file";
+            }
+            if (error != null) {
+                report.fail(row.rowNumber, row.request.getEmail(), error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // The IN lookup is case-insensitive only through the column's collation (MySQL's default),
+        // which also finds mixed-case emails stored by registration. Lowercase what it returns so
+        // those compare equal to the normalized import emails.
+        Set<String> existing = new HashSet<>();
+        for (String email : userRepository.findExistingEmails(valid.stream().map(ImportRow::email).toList())) {
+            existing.add(email.toLowerCase(Locale.ROOT));
+        }
+        List<ImportRow> toInsert = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (existing.contains(row.email())) {
+                report.fail(row.rowNumber, row.email(), "Email already in use");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> referrers = findReferrers(toInsert);
+        List<String> hashes = encodeAll(toInsert.stream().map(row -> row.request.getPassword()).toList());
+        for (int i = 0; i < toInsert.size(); i++) {
+            ImportRow row = toInsert.get(i);
+            row.passwordHash = hashes.get(i);
+            row.referralCode = referralCodeGenerator.nextCode();
+            row.referrerId = row.referralCodeUsed() == null ? null : referrers.get(row.referralCodeUsed());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(toInsert, role));
+            report.imported += toInsert.size();
+        } catch (DataAccessException e) {
+            // e.g. an email registered concurrently; the whole batch was rolled back
+            String message = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+            for (ImportRow row : toInsert) {
+                report.fail(row.rowNumber, row.email(), message);
+            }
+        }
+    }
+
+    private void insert(List<ImportRow> rows, Role role) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_USER_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.request.getName().trim());
+            ps.setString(2, row.email());
+            ps.setString(3, row.passwordHash);
+            ps.setTimestamp(4, now);
+            ps.setString(5, row.referralCode);
+            if (row.referrerId != null) {
+                ps.setLong(6, row.referrerId);
+            } else {
+                ps.setNull(6, Types.BIGINT);
+            }
+            ps.setString(7, SellerApplicationStatus.NOT_APPLICABLE.name());
+        });
+
+        // IDENTITY keys aren't returned reliably from batches, so read them back in one query
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(SELECT_IDS_SQL, Map.of("emails", rows.stream().map(ImportRow::email).toList()),
+                rs -> {
+                    ids.put(rs.getString("email").toLowerCase(Locale.ROOT), rs.getLong("id"));
+                });
+        List<Long> userIds = rows.stream().map(row -> ids.get(row.email())).toList();
+
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_ROLE_SQL, userIds, userIds.size(), (ps, userId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, role.getId());
+        });
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_CART_SQL, userIds, userIds.size(),
+                (ps, userId) -> ps.setLong(1, userId));
+    }
+
+    private Map<String, Long> findReferrers(List<ImportRow> rows) {
+        Set<String> codes = new HashSet<>();
+        for (ImportRow row : rows) {
+            String code = row.referralCodeUsed();
+            if (code != null && referralCodeGenerator.isPlausible(code)) {
+                codes.add(code);
+            }
+        }
+        Map<String, Long> referrers = new HashMap<>();
+        if (!codes.isEmpty()) {
+            for (Object[] result : userRepository.findIdsByReferralCodes(codes)) {
+                referrers.put((String) result[0], (Long) result[1]);
+            }
+        }
+        return referrers;
+    }
+
+    private List<String> encodeAll(List<String> rawPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedEncoder) {
+            return boundedEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+
+    private String validate(RegisterRequest request) {
+        if (isBlank(request.getName())) {
+            return "Name is required";
+        }
+        if (isBlank(request.getEmail()) || !EMAIL_PATTERN.matcher(request.getEmail().trim()).matches()) {
+            return "A valid email is required";
+        }
+        if (isBlank(request.getPassword())) {
+            return "Password is required";
+        }
+        return null;
+    }
+
+    private RowReader csvRows(BufferedReader reader) throws IOException {
+        CSVReader csvReader = new CSVReader(reader);
+        String[] header = readCsvLine(csvReader);
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "CSV header must contain a '" + required + "' column");
+            }
+        }
+        return () -> {
+            String[] line = readCsvLine(csvReader);
+            if (line == null) {
+                return null;
+            }
+            return RegisterRequest.builder()
+                    .name(column(line, columns, "name"))
+                    .email(column(line, columns, "email"))
+                    .password(column(line, columns, "password"))
+                    .referralCode(column(line, columns, "referralcode"))
+                    .build();
+        };
+    }
+
+    private RowReader ndjsonRows(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return objectMapper.readValue(line, RegisterRequest.class);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Malformed JSON line");
+            }
+        };
+    }
+
+    private static String[] readCsvLine(CSVReader csvReader) throws IOException {
+        try {
+            return csvReader.readNext();
+        } catch (CsvValidationException e) {
+            throw new IllegalArgumentException("Malformed CSV line");
+        }
+    }
+
+    private static String column(String[] line, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < line.length ? line[index] : null;
+    }
+
+    private static boolean isCsv(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        // Returns null at end of input; throws IllegalArgumentException for a bad row
+        RegisterRequest next() throws IOException;
+    }
+
+    private static class ImportRow {
+        private final int rowNumber;
+        private final RegisterRequest request;
+        private String passwordHash;
+        private String referralCode;
+        private Long referrerId;
+
+        private ImportRow(int rowNumber, RegisterRequest request) {
+            this.rowNumber = rowNumber;
+            this.request = request;
+        }
+
+        // Normalized before dedup and lookup, so "A@x.com" and "a@x.com" are the same user
+        private String email() {
+            return request.getEmail().trim().toLowerCase(Locale.ROOT);
+        }
+
+        private String referralCodeUsed() {
+            String code = request.getReferralCode();
+            return code == null || code.isBlank() ? null : code.trim().toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private static class ImportReport {
+        private int imported;
+        private final List<UserImportError> errors = new ArrayList<>();
+
+        private void fail(int rowNumber, String email, String message) {
+            errors.add(new UserImportError(rowNumber, email, message));
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.ecobazaarx.v2.model.Product;
 import com.ecobazaarx.v2.model.User;
 import com.ecobazaarx.v2.model.Wishlist;
 import com.ecobazaarx.v2.repository.ProductRepository;
-import com.ecobazaarx.v2.repository.UserRepository;
 import com.ecobazaarx.v2.repository.WishlistRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -15,32 +14,31 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class WishlistService {
 
     private final WishlistRepository wishlistRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final ProductRepository productRepository;
     private final ProductService productService;
 
     @Transactional(readOnly = true)
     public List<ProductResponseDto> getWishlist(UserDetails currentUser) {
-        User user = findUserByEmail(currentUser.getUsername());
+        Long userId = currentUserService.getUserId(currentUser);
 
-        List<Wishlist> items = wishlistRepository.findByUserId(user.getId());
+        List<Wishlist> items = wishlistRepository.findByUserId(userId);
 
-        return items.stream()
-                .map(Wishlist::getProduct)
-                .map(productService::mapToResponseDto)
-                .collect(Collectors.toList());
+        // Product ids come from the wishlist rows' foreign keys; the products are read in one query
+        return productService.findResponseDtos(items.stream()
+                .map(item -> item.getProduct().getId())
+                .toList());
     }
 
     @Transactional
     public ProductResponseDto addProductToWishlist(UserDetails currentUser, Long productId) {
-        User user = findUserByEmail(currentUser.getUsername());
+        User user = currentUserService.getUserReference(currentUser);
         Product product = findProductById(productId);
 
         Optional<Wishlist> existing = wishlistRepository.findByUserIdAndProductId(user.getId(), productId);
@@ -56,19 +54,14 @@ public class WishlistService {
 
     @Transactional
     public void removeProductFromWishlist(UserDetails currentUser, Long productId) {
-        User user = findUserByEmail(currentUser.getUsername());
+        Long userId = currentUserService.getUserId(currentUser);
 
-        Wishlist wishlistItem = wishlistRepository.findByUserIdAndProductId(user.getId(), productId)
+        Wishlist wishlistItem = wishlistRepository.findByUserIdAndProductId(userId, productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found in wishlist"));
 
         wishlistRepository.delete(wishlistItem);
     }
 
-    private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-    }
-
     private Product findProductById(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
@@ -0,0 +1,139 @@
+package com.ecobazaarx.v2.config;
+
+import com.ecobazaarx.v2.model.Role;
+import com.ecobazaarx.v2.model.RoleName;
+import com.ecobazaarx.v2.model.User;
+import com.ecobazaarx.v2.repository.UserRepository;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenRevocationRegistry revocationRegistry = new TokenRevocationRegistry(userRepository);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static JwtService jwtService(boolean stateless, long expiration, String secret) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", secret);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(jwtService, "statelessTokens", stateless);
+        jwtService.init();
+        return jwtService;
+    }
+
+    private static User user() {
+        Role role = new Role();
+        role.setName(RoleName.ROLE_CUSTOMER);
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("customer@example.com");
+        user.setRoles(new HashSet<>(List.of(role)));
+        user.setTokenVersion(2);
+        return user;
+    }
+
+    @Test
+    void statelessTokenRoundTripsItsClaims() {
+        JwtService jwtService = jwtService(true, 60_000, SECRET);
+        User user = user();
+
+        ParsedToken token = jwtService.parseToken(jwtService.generateAccessToken(user));
+
+        assertThat(token.getSubject()).isEqualTo("customer@example.com");
+        assertThat(token.isStateless()).isTrue();
+        assertThat(token.getUserId()).isEqualTo(7L);
+        assertThat(token.getRoles()).containsExactly("ROLE_CUSTOMER");
+        assertThat(token.getTokenVersion()).isEqualTo(2);
+        assertThat(token.isExpired()).isFalse();
+        assertThat(jwtService.isTokenValid(token, user)).isTrue();
+    }
+
+    @Test
+    void classicTokenCarriesOnlyTheSubject() {
+        JwtService jwtService = jwtService(false, 60_000, SECRET);
+
+        ParsedToken token = jwtService.parseToken(jwtService.generateAccessToken(user()));
+
+        assertThat(token.getSubject()).isEqualTo("customer@example.com");
+        assertThat(token.isStateless()).isFalse();
+        assertThat(token.getRoles()).isEmpty();
+        assertThat(token.getTokenVersion()).isNull();
+    }
+
+    @Test
+    void rejectsTamperedForeignAndExpiredTokens() {
+        JwtService jwtService = jwtService(true, 60_000, SECRET);
+        String token = jwtService.generateAccessToken(user());
+        String foreignSecret = Base64.getEncoder().encodeToString("another-secret-another-secret-32".getBytes());
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwtService.parseToken(tampered)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> jwtService(true, 60_000, foreignSecret).parseToken(token))
+                .isInstanceOf(SignatureException.class);
+        String expired = jwtService(true, -1_000, SECRET).generateAccessToken(user());
+        assertThatThrownBy(() -> jwtService.parseToken(expired)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void revocationRejectsOlderTokenVersions() {
+        JwtService jwtService = jwtService(true, 60_000, SECRET);
+        User user = user();
+        ParsedToken before = jwtService.parseToken(jwtService.generateAccessToken(user));
+        assertThat(revocationRegistry.isRevoked(before.getUserId(), before.getTokenVersion())).isFalse();
+
+        revocationRegistry.revoke(user);
+        ParsedToken after = jwtService.parseToken(jwtService.generateAccessToken(user));
+
+        assertThat(after.getTokenVersion()).isEqualTo(3);
+        assertThat(revocationRegistry.isRevoked(before.getUserId(), before.getTokenVersion())).isTrue();
+        assertThat(revocationRegistry.isRevoked(after.getUserId(), after.getTokenVersion())).isFalse();
+        // a stateless token without a version can't prove it's current
+        assertThat(revocationRegistry.isRevoked(7L, null)).isTrue();
+        assertThat(revocationRegistry.isRevoked(8L, null)).isFalse();
+    }
+
+    @Test
+    void revocationWaitsForCommit() {
+        User user = user();
+        TransactionSynchronizationManager.initSynchronization();
+
+        revocationRegistry.revoke(user);
+        assertThat(revocationRegistry.isRevoked(7L, 2)).isFalse();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(revocationRegistry.isRevoked(7L, 2)).isTrue();
+    }
+
+    @Test
+    void loadsRevokedVersionsAtStartup() {
+        when(userRepository.findRevokedTokenVersions()).thenReturn(List.<Object[]>of(new Object[]{7L, 4}));
+
+        revocationRegistry.loadFromDatabase();
+
+        assertThat(revocationRegistry.isRevoked(7L, 3)).isTrue();
+        assertThat(revocationRegistry.isRevoked(7L, 4)).isFalse();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecobazaarx.v2.repository;
+
+import com.ecobazaarx.v2.config.DataSourceProxyConfig;
+import com.ecobazaarx.v2.config.RequestQueryStats;
+import com.ecobazaarx.v2.model.Cart;
+import com.ecobazaarx.v2.model.CartItem;
+import com.ecobazaarx.v2.model.Category;
+import com.ecobazaarx.v2.model.Product;
+import com.ecobazaarx.v2.model.TransportZone;
+import com.ecobazaarx.v2.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the fixed statement count of cart loading: it must not grow with the number of items
+// Discount has a "value" column, a keyword in H2
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.auto_quote_keyword=true")
+@Import(DataSourceProxyConfig.class)
+class CartRepositoryTest {
+
+    private static final int ITEM_COUNT = 50;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User seller = persistUser("seller@example.com");
+        User customer = persistUser("customer@example.com");
+
+        Category category = new Category();
+        category.setName("Kitchen");
+        entityManager.persist(category);
+
+        TransportZone zone = new TransportZone();
+        zone.setName("Local");
+        zone.setCost(new BigDecimal("40.00"));
+        zone.setFlatCarbonFootprint(new BigDecimal("1.50"));
+        entityManager.persist(zone);
+
+        Cart cart = new Cart();
+        cart.setUser(customer);
+        cart.setSelectedTransportZone(zone);
+        entityManager.persist(cart);
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Reusable");
+            product.setPrice(new BigDecimal("9.99"));
+            product.setStockQuantity(100);
+            product.setSeller(seller);
+            product.setCategory(category);
+            product.setTransportZone(zone);
+            entityManager.persist(product);
+
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(1 + i % 3);
+            entityManager.persist(item);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        userId = customer.getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestQueryStats.end();
+    }
+
+    @Test
+    void loadsCartWithItemsAndProductsInOneStatement() {
+        assertThat(statementsFor(() -> {
+            Cart cart = cartRepository.findByUserIdWithItems(userId).orElseThrow();
+            touchResponseGraph(cart);
+            return cart;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void locksAndLoadsCartInTwoStatements() {
+        assertThat(statementsFor(() -> {
+            Cart cart = cartRepository.lockByUserIdWithItems(userId).orElseThrow();
+            touchResponseGraph(cart);
+            return cart;
+        })).isEqualTo(2);
+    }
+
+    private int statementsFor(Supplier<Cart> load) {
+        RequestQueryStats stats = RequestQueryStats.begin(ITEM_COUNT);
+        Cart cart = load.get();
+        assertThat(cart.getItems()).hasSize(ITEM_COUNT);
+        return stats.getCount();
+    }
+
+    // Everything mapToCartResponse reads; any lazy load here would add statements
+    private static void touchResponseGraph(Cart cart) {
+        cart.getSelectedTransportZone().getName();
+        for (CartItem item : cart.getItems()) {
+            item.getProduct().getName();
+            item.getProduct().getPrice();
+        }
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPassword("hash");
+        return entityManager.persist(user);
+    }
+}
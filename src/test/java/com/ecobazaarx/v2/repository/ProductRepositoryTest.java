@@ -0,0 +1,176 @@
+package com.ecobazaarx.v2.repository;
+
+import com.ecobazaarx.v2.config.DataSourceProxyConfig;
+import com.ecobazaarx.v2.config.RequestQueryStats;
+import com.ecobazaarx.v2.dto.ProductResponseDto;
+import com.ecobazaarx.v2.model.Category;
+import com.ecobazaarx.v2.model.Product;
+import com.ecobazaarx.v2.model.TransportZone;
+import com.ecobazaarx.v2.model.User;
+import com.ecobazaarx.v2.service.ProductSortField;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Discount has a "value" column, a keyword in H2
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.auto_quote_keyword=true")
+@Import(DataSourceProxyConfig.class)
+class ProductRepositoryTest {
+
+    private static final int PRODUCT_COUNT = 60;
+    private static final Specification<Product> NOT_ARCHIVED =
+            (root, query, builder) -> builder.isFalse(root.get("isArchived"));
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        User seller = new User();
+        seller.setName("Seller");
+        seller.setEmail("seller@example.com");
+        seller.setPassword("hash");
+        seller.setStoreName("Green Goods");
+        entityManager.persist(seller);
+
+        Category category = new Category();
+        category.setName("Kitchen");
+        entityManager.persist(category);
+
+        TransportZone zone = new TransportZone();
+        zone.setName("Local");
+        zone.setCost(new BigDecimal("40.00"));
+        zone.setFlatCarbonFootprint(new BigDecimal("1.50"));
+        entityManager.persist(zone);
+
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Reusable");
+            product.setPrice(BigDecimal.valueOf(100 + (i * 37) % PRODUCT_COUNT, 1));
+            product.setStockQuantity(100);
+            product.setEcoPoints(i % 7);
+            product.setCradleToWarehouseFootprint(BigDecimal.valueOf(i % 11, 1));
+            product.setAverageRating(BigDecimal.valueOf(i % 50, 1));
+            product.setSeller(seller);
+            product.setCategory(category);
+            product.setTransportZone(zone);
+            entityManager.persist(product);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestQueryStats.end();
+    }
+
+    @Test
+    void productPageCostsTheSameStatementsWhateverItsSize() {
+        for (int size : new int[]{1, 10, 50}) {
+            RequestQueryStats stats = RequestQueryStats.begin(10);
+
+            List<ProductResponseDto> dtos = loadPage(size);
+
+            assertThat(dtos).hasSize(size);
+            assertThat(dtos).allSatisfy(dto -> {
+                assertThat(dto.getCategoryName()).isEqualTo("Kitchen");
+                assertThat(dto.getSellerStoreName()).isEqualTo("Green Goods");
+            });
+            // page query, its count and one projection query
+            assertThat(stats.getCount()).as("statements for a page of %d", size).isEqualTo(3);
+            RequestQueryStats.end();
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void everyAllowedSortFieldOrdersTheListing() {
+        for (ProductSortField field : ProductSortField.values()) {
+            for (String direction : new String[]{"asc", "desc"}) {
+                Sort sort = ProductSortField.toSort(new String[]{field.getProperty(), direction});
+
+                List<Product> products = productRepository.findAll(NOT_ARCHIVED, PageRequest.of(0, 25, sort)).getContent();
+
+                assertThat(products).hasSize(25);
+                Comparator<Product> expected = Comparator
+                        .comparing((Product product) -> sortValue(field, product))
+                        .thenComparing(Product::getId);
+                assertThat(products).as("%s %s", field, direction)
+                        .isSortedAccordingTo(direction.equals("asc") ? expected : expected.reversed());
+            }
+        }
+    }
+
+    @Test
+    void sortFieldsOffTheWhitelistAreRejectedBeforeAnyQuery() {
+        RequestQueryStats stats = RequestQueryStats.begin(10);
+
+        for (String property : new String[]{"name", "description", "stockQuantity", "seller.storeName"}) {
+            assertThatThrownBy(() -> productRepository.findAll(NOT_ARCHIVED,
+                    PageRequest.of(0, 10, ProductSortField.toSort(new String[]{property}))))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+        assertThat(stats.getCount()).isZero();
+    }
+
+    // H2 names the index it picks; id pages walk the primary key, which its plan doesn't show
+    @Test
+    void activeListingSortsUseTheirIndex() {
+        Map<String, String> indexByColumn = Map.of(
+                "price", "IDX_PRODUCTS_ARCHIVED_PRICE",
+                "created_at", "IDX_PRODUCTS_ARCHIVED_CREATED_AT",
+                "average_rating", "IDX_PRODUCTS_ARCHIVED_RATING",
+                "cradle_to_warehouse_footprint", "IDX_PRODUCTS_ARCHIVED_FOOTPRINT",
+                "eco_points", "IDX_PRODUCTS_ARCHIVED_ECO_POINTS");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        indexByColumn.forEach((column, index) -> {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT id FROM products WHERE is_archived = FALSE " +
+                    "ORDER BY " + column + " DESC, id DESC LIMIT 20", String.class);
+            assertThat(plan).as(column).contains(index);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> sortValue(ProductSortField field, Product product) {
+        return (Comparable<Object>) field.parseCursorValue(field.cursorValue(product));
+    }
+
+    // What ProductService.getAllProducts does: the page of entities, then the DTOs for its ids
+    private List<ProductResponseDto> loadPage(int size) {
+        Page<Product> page = productRepository.findAll(NOT_ARCHIVED,
+                PageRequest.of(0, size, Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"))));
+        return productRepository.findResponseDtosByIdIn(page.getContent().stream().map(Product::getId).toList());
+    }
+}
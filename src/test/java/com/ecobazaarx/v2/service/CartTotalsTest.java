@@ -0,0 +1,114 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Cart;
+import com.ecobazaarx.v2.model.CartItem;
+import com.ecobazaarx.v2.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Property: after any sequence of cart changes, the running totals equal a full recompute
+class CartTotalsTest {
+
+    private static final int SEEDS = 200;
+    private static final int OPERATIONS = 100;
+
+    @Test
+    void runningTotalsMatchFullRecompute() {
+        for (long seed = 0; seed < SEEDS; seed++) {
+            Random random = new Random(seed);
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                products.add(product(random));
+            }
+            Cart cart = new Cart();
+            Map<Product, CartItem> items = new HashMap<>();
+
+            for (int op = 0; op < OPERATIONS; op++) {
+                Product product = products.get(random.nextInt(products.size()));
+                CartItem item = items.get(product);
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        // add, or raise the quantity of an existing line
+                        int quantity = 1 + random.nextInt(5);
+                        if (item == null) {
+                            item = new CartItem();
+                            item.setCart(cart);
+                            item.setProduct(product);
+                            cart.getItems().add(item);
+                            items.put(product, item);
+                        }
+                        item.setQuantity(item.getQuantity() + quantity);
+                        CartTotals.add(cart, product, quantity);
+                    }
+                    case 1 -> {
+                        // set an existing line to a new quantity
+                        if (item != null) {
+                            int quantity = 1 + random.nextInt(10);
+                            CartTotals.add(cart, product, quantity - item.getQuantity());
+                            item.setQuantity(quantity);
+                        }
+                    }
+                    case 2 -> {
+                        // remove
+                        if (item != null) {
+                            CartTotals.add(cart, product, -item.getQuantity());
+                            cart.getItems().remove(item);
+                            items.remove(product);
+                        }
+                    }
+                    default -> {
+                        // price change: the cart is marked stale and recomputed on the next read
+                        product.setPrice(price(random));
+                        cart.setTotalsStale(true);
+                        CartTotals.refreshIfStale(cart);
+                    }
+                }
+                assertMatchesRecompute(cart, seed);
+            }
+        }
+    }
+
+    @Test
+    void refreshIfStaleLeavesFreshTotalsAlone() {
+        Cart cart = new Cart();
+        cart.setItemCount(3);
+        cart.setProductsTotalAmount(new BigDecimal("30.00"));
+
+        CartTotals.refreshIfStale(cart);
+
+        assertThat(cart.getItemCount()).isEqualTo(3);
+        assertThat(cart.getProductsTotalAmount()).isEqualByComparingTo("30.00");
+    }
+
+    private static void assertMatchesRecompute(Cart cart, long seed) {
+        Cart recomputed = new Cart();
+        recomputed.getItems().addAll(cart.getItems());
+        CartTotals.recalculate(recomputed);
+
+        assertThat(cart.getItemCount()).as("item count, seed %d", seed).isEqualTo(recomputed.getItemCount());
+        assertThat(cart.getProductsTotalAmount()).as("amount, seed %d", seed)
+                .isEqualByComparingTo(recomputed.getProductsTotalAmount());
+        assertThat(cart.getProductsTotalCarbon()).as("carbon, seed %d", seed)
+                .isEqualByComparingTo(recomputed.getProductsTotalCarbon());
+        assertThat(cart.isTotalsStale()).isFalse();
+    }
+
+    private static Product product(Random random) {
+        Product product = new Product();
+        product.setPrice(price(random));
+        product.setCradleToWarehouseFootprint(BigDecimal.valueOf(random.nextInt(100_000), 2));
+        return product;
+    }
+
+    private static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2);
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Cart;
+import com.ecobazaarx.v2.model.CartItem;
+import com.ecobazaarx.v2.model.Product;
+import com.ecobazaarx.v2.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CartWriteBehindStoreTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long ITEM_ID = 70L;
+
+    private CartRepository cartRepository;
+    private PlatformTransactionManager transactionManager;
+    private CartWriteBehindStore store;
+    private Cart cart;
+    private CartItem item;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        store = new CartWriteBehindStore(cartRepository, mock(CurrentUserService.class), transactionManager,
+                new SimpleMeterRegistry(), true, 100);
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setPrice(new BigDecimal("12.50"));
+        product.setCradleToWarehouseFootprint(new BigDecimal("0.40"));
+
+        cart = new Cart();
+        item = new CartItem();
+        item.setId(ITEM_ID);
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(1);
+        cart.getItems().add(item);
+        CartTotals.recalculate(cart);
+        when(cartRepository.lockByUserIdWithItems(USER_ID)).thenReturn(Optional.of(cart));
+    }
+
+    @Test
+    void clickStormCoalescesIntoOneWriteOfTheLastQuantity() throws InterruptedException {
+        ExecutorService clicks = Executors.newFixedThreadPool(8);
+        for (int i = 1; i <= 1000; i++) {
+            int quantity = i;
+            clicks.submit(() -> store.setQuantity(USER_ID, ITEM_ID, quantity));
+        }
+        clicks.shutdown();
+        assertThat(clicks.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        store.setQuantity(USER_ID, ITEM_ID, 3);
+
+        assertThat(store.getPending(USER_ID)).containsExactlyEntriesOf(Map.of(ITEM_ID, 3));
+
+        store.flushAll();
+
+        verify(cartRepository, times(1)).lockByUserIdWithItems(USER_ID);
+        verify(cartRepository, times(1)).save(cart);
+        assertThat(item.getQuantity()).isEqualTo(3);
+        assertThat(cart.getItemCount()).isEqualTo(3);
+        assertThat(cart.getProductsTotalAmount()).isEqualByComparingTo("37.50");
+        assertThat(store.getPending(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void zeroQuantityRemovesTheItemOnFlush() {
+        store.setQuantity(USER_ID, ITEM_ID, 0);
+
+        store.flush(USER_ID);
+
+        assertThat(cart.getItems()).isEmpty();
+        assertThat(cart.getItemCount()).isZero();
+        assertThat(cart.getProductsTotalAmount()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void failedFlushKeepsChangesForTheNextAttempt() {
+        when(cartRepository.lockByUserIdWithItems(USER_ID))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Optional.of(cart));
+        store.setQuantity(USER_ID, ITEM_ID, 4);
+
+        assertThatThrownBy(() -> store.flush(USER_ID)).isInstanceOf(IllegalStateException.class);
+        verify(transactionManager).rollback(any());
+        assertThat(store.getPending(USER_ID)).containsEntry(ITEM_ID, 4);
+        assertThat(item.getQuantity()).isEqualTo(1);
+
+        store.flush(USER_ID);
+
+        assertThat(item.getQuantity()).isEqualTo(4);
+        assertThat(store.getPending(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void newerChangeWinsOverRestoredFailedOne() {
+        when(cartRepository.lockByUserIdWithItems(USER_ID)).thenAnswer(invocation -> {
+            // the user clicks again while the failing flush is running
+            store.setQuantity(USER_ID, ITEM_ID, 9);
+            throw new IllegalStateException("database down");
+        });
+        store.setQuantity(USER_ID, ITEM_ID, 4);
+
+        assertThatThrownBy(() -> store.flush(USER_ID)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.getPending(USER_ID)).containsEntry(ITEM_ID, 9);
+    }
+
+    @Test
+    void scheduledFlushSwallowsFailuresAndShutdownFlushWritesEverything() {
+        when(cartRepository.lockByUserIdWithItems(USER_ID))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Optional.of(cart));
+        store.setQuantity(USER_ID, ITEM_ID, 2);
+
+        store.flushAll();
+        assertThat(store.getPending(USER_ID)).containsEntry(ITEM_ID, 2);
+
+        store.flushOnShutdown();
+        assertThat(item.getQuantity()).isEqualTo(2);
+        assertThat(store.getPending(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void changesToItemsRemovedMeanwhileAreSkipped() {
+        store.setQuantity(USER_ID, 999L, 5);
+
+        store.flush(USER_ID);
+
+        assertThat(item.getQuantity()).isEqualTo(1);
+        assertThat(cart.getItemCount()).isEqualTo(1);
+    }
+
+    @Test
+    void checkoutFlushWaitsForABackgroundFlushStillInFlight() throws Exception {
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        when(cartRepository.lockByUserIdWithItems(USER_ID)).thenAnswer(invocation -> {
+            flushStarted.countDown();
+            releaseFlush.await();
+            return Optional.of(cart);
+        });
+        store.setQuantity(USER_ID, ITEM_ID, 4);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            threads.submit(store::flushAll);
+            assertThat(flushStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // drained from the buffer, but not committed yet
+            assertThat(store.getPending(USER_ID)).isEmpty();
+
+            // what CheckoutController does before placeOrder locks the cart
+            Future<Integer> checkout = threads.submit(() -> {
+                store.flush(USER_ID);
+                return item.getQuantity();
+            });
+            assertThatThrownBy(() -> checkout.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+            releaseFlush.countDown();
+            assertThat(checkout.get(5, TimeUnit.SECONDS)).isEqualTo(4);
+        } finally {
+            releaseFlush.countDown();
+            threads.shutdownNow();
+        }
+    }
+}
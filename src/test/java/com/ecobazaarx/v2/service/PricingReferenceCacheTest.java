@@ -0,0 +1,70 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.TaxRate;
+import com.ecobazaarx.v2.repository.TaxRateRepository;
+import com.ecobazaarx.v2.repository.TransportZoneRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingReferenceCacheTest {
+
+    private final TaxRateRepository taxRateRepository = mock(TaxRateRepository.class);
+    private final TransportZoneRepository transportZoneRepository = mock(TransportZoneRepository.class);
+    private final PricingReferenceCache cache = new PricingReferenceCache(taxRateRepository, transportZoneRepository);
+
+    private static TaxRate taxRate(long id, String name, String rate, String country, String state) {
+        TaxRate taxRate = new TaxRate();
+        taxRate.setId(id);
+        taxRate.setName(name);
+        taxRate.setRate(new BigDecimal(rate));
+        taxRate.setCountry(country);
+        taxRate.setState(state);
+        return taxRate;
+    }
+
+    private BigDecimal rateFor(List<TaxRate> rows, String country, String state) {
+        when(taxRateRepository.findAll()).thenReturn(rows);
+        cache.reload();
+        return cache.findTaxRate(country, state);
+    }
+
+    @Test
+    void resolvesMostSpecificRegionFirst() {
+        List<TaxRate> rows = List.of(
+                taxRate(1, "GST", "0.18", null, null),
+                taxRate(2, "IN", "0.12", "IN", null),
+                taxRate(3, "IN-KA", "0.05", "in", " KA "));
+
+        assertThat(rateFor(rows, "IN", "KA")).isEqualByComparingTo("0.05");
+        assertThat(rateFor(rows, "IN", "MH")).isEqualByComparingTo("0.12");
+        assertThat(rateFor(rows, "US", "CA")).isEqualByComparingTo("0.18");
+    }
+
+    @Test
+    void tiesWithinARegionDoNotDependOnRowOrder() {
+        List<TaxRate> rows = new ArrayList<>(List.of(
+                taxRate(5, "Luxury", "0.28", "IN", null),
+                taxRate(4, "GST", "0.18", "IN", null),
+                taxRate(3, "Reduced", "0.05", "US", null),
+                taxRate(2, "Zero", "0.00", "US", null)));
+
+        for (int i = 0; i < 10; i++) {
+            Collections.shuffle(rows);
+            assertThat(rateFor(rows, "IN", null)).isEqualByComparingTo("0.18");
+            assertThat(rateFor(rows, "US", null)).isEqualByComparingTo("0.00");
+        }
+    }
+
+    @Test
+    void noMatchAndNoDefaultMeansNoTax() {
+        assertThat(rateFor(List.of(taxRate(1, "IN", "0.12", "IN", null)), "US", null)).isNull();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecobazaarx.v2.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        for (ProductCursor cursor : new ProductCursor[]{
+                new ProductCursor("price", "19.99", 42L),
+                new ProductCursor("createdAt", "2026-01-02T03:04:05.123456", 7L),
+                new ProductCursor(ProductCursor.RELEVANCE, "20", 1L),
+                new ProductCursor("ecoPoints", "", Long.MAX_VALUE)}) {
+            String encoded = cursor.encode();
+
+            assertThat(encoded).matches("[A-Za-z0-9_-]+");
+            assertThat(ProductCursor.decode(encoded)).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void nullOrBlankStartsFromTheBeginning() {
+        assertThat(ProductCursor.decode(null)).isNull();
+        assertThat(ProductCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() {
+        for (String cursor : new String[]{"not base64!", urlSafe("price|1"), urlSafe("price|1|x"), urlSafe("a|b|1|2")}) {
+            assertThatThrownBy(() -> ProductCursor.decode(cursor))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    private static String urlSafe(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
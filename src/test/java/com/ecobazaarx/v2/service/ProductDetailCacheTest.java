@@ -0,0 +1,97 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.dto.ProductResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductDetailCacheTest {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    private ProductDetailCache cache;
+    private final AtomicInteger databaseStock = new AtomicInteger(10);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductDetailCache(new SimpleMeterRegistry(), new CatalogVersion(), 100, 60_000);
+    }
+
+    private ProductResponseDto load(Long id) {
+        loads.incrementAndGet();
+        return ProductResponseDto.builder().id(id).stockQuantity(databaseStock.get()).build();
+    }
+
+    @Test
+    void stockUpdateOverlaysCachedDetailsWithoutReloading() {
+        cache.get(PRODUCT_ID, this::load);
+
+        databaseStock.set(7);
+        cache.updateStockAfterCommit(PRODUCT_ID, 7);
+
+        assertThat(cache.get(PRODUCT_ID, this::load).getStockQuantity()).isEqualTo(7);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void reloadDropsAnOlderOverlay() {
+        cache.get(PRODUCT_ID, this::load);
+        cache.updateStockAfterCommit(PRODUCT_ID, 7);
+        cache.evictAfterCommit(PRODUCT_ID);
+        cache.get(PRODUCT_ID, this::load);
+        // restocked while cached; a sale overlay from before the reload must not come back
+        databaseStock.set(50);
+        cache.evictAfterCommit(PRODUCT_ID);
+
+        assertThat(cache.get(PRODUCT_ID, this::load).getStockQuantity()).isEqualTo(50);
+    }
+
+    @Test
+    void stockUpdateForUncachedProductForcesAFreshLoad() {
+        cache.get(PRODUCT_ID, this::load);
+        cache.updateStockAfterCommit(PRODUCT_ID, 7);
+        cache.evictAfterCommit(PRODUCT_ID);
+
+        databaseStock.set(5);
+        cache.updateStockAfterCommit(PRODUCT_ID, 5);
+
+        assertThat(cache.get(PRODUCT_ID, this::load).getStockQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void saleCommittedDuringALoadDiscardsTheLoadedValue() throws InterruptedException {
+        Thread[] sale = new Thread[1];
+        cache.get(PRODUCT_ID, id -> {
+            ProductResponseDto loaded = load(id);
+            // the sale commits after the load read the old stock but before it was cached
+            databaseStock.set(3);
+            sale[0] = new Thread(() -> cache.updateStockAfterCommit(PRODUCT_ID, 3));
+            sale[0].start();
+            return loaded;
+        });
+        // either waits for the load and discards it, or runs after it and overlays the new stock
+        sale[0].join();
+
+        assertThat(cache.get(PRODUCT_ID, this::load).getStockQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void saleCommittedDuringABulkLoadDiscardsTheLoadedValues() {
+        cache.getAll(List.of(PRODUCT_ID), missing -> {
+            Map<Long, ProductResponseDto> loaded = Map.of(PRODUCT_ID, load(PRODUCT_ID));
+            databaseStock.set(3);
+            cache.updateStockAfterCommit(PRODUCT_ID, 3);
+            return loaded;
+        });
+
+        assertThat(cache.getAll(List.of(PRODUCT_ID), missing -> Map.of(PRODUCT_ID, load(PRODUCT_ID)))
+                .get(PRODUCT_ID).getStockQuantity()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Category;
+import com.ecobazaarx.v2.model.Product;
+import com.ecobazaarx.v2.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    private static Object[] row(long id, String name) {
+        return new Object[]{id, name, "Reusable", 1, "Kitchen", new BigDecimal("9.99"), BigDecimal.ONE, 0};
+    }
+
+    private static Product product(long id, String name) {
+        Category category = new Category();
+        category.setId(1);
+        category.setName("Kitchen");
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription("Reusable");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setCradleToWarehouseFootprint(BigDecimal.ONE);
+        return product;
+    }
+
+    @Test
+    void changesCommittedDuringARebuildSurviveTheSwap() {
+        List<Object[]> rows = new ArrayList<>(List.of(row(1, "Bamboo brush"), row(2, "Steel bottle")));
+        when(productRepository.findSearchDocuments()).thenReturn(rows);
+        index.rebuild();
+
+        // The rebuild reads a snapshot from before these commits land
+        when(productRepository.findSearchDocuments()).thenAnswer(invocation -> {
+            List<Object[]> snapshot = List.copyOf(rows);
+            index.indexAfterCommit(product(3, "Cotton bag"));
+            index.removeAfterCommit(1L);
+            index.indexAfterCommit(product(2, "Glass bottle"));
+            return snapshot;
+        });
+        index.rebuild();
+
+        assertThat(index.search(null, null, null, null).ids()).containsExactly(3L, 2L);
+        assertThat(index.search("bamboo", null, null, null).ids()).isEmpty();
+        assertThat(index.search("glass", null, null, null).ids()).containsExactly(2L);
+        assertThat(index.search("steel", null, null, null).ids()).isEmpty();
+    }
+
+    @Test
+    void changesAfterARebuildAreNotReplayedByTheNextOne() {
+        when(productRepository.findSearchDocuments()).thenReturn(List.<Object[]>of(row(1, "Bamboo brush")));
+        index.rebuild();
+        index.removeAfterCommit(1L);
+        assertThat(index.search(null, null, null, null).ids()).isEmpty();
+
+        // The product came back in the database; only the fresh snapshot counts
+        index.rebuild();
+
+        assertThat(index.search("bamboo", null, null, null).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentIndexAndStopsRecording() {
+        when(productRepository.findSearchDocuments()).thenReturn(List.<Object[]>of(row(1, "Bamboo brush")));
+        index.rebuild();
+
+        when(productRepository.findSearchDocuments()).thenThrow(new IllegalStateException("database down"));
+        assertThatThrownBy(index::rebuild).isInstanceOf(IllegalStateException.class);
+        index.indexAfterCommit(product(2, "Cotton bag"));
+
+        assertThat(index.search(null, null, null, null).ids()).containsExactly(2L, 1L);
+    }
+}
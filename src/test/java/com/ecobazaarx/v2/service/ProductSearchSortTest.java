@@ -0,0 +1,125 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.dto.ProductResponseDto;
+import com.ecobazaarx.v2.dto.ProductSliceResponse;
+import com.ecobazaarx.v2.model.Category;
+import com.ecobazaarx.v2.model.Product;
+import com.ecobazaarx.v2.model.TransportZone;
+import com.ecobazaarx.v2.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Search with an explicit id sort: only id DESC may be served in the index's own order
+// Discount has a "value" column, a keyword in H2
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.auto_quote_keyword=true")
+@Import({ProductService.class, ProductSearchIndex.class, CatalogVersion.class, CurrentUserService.class})
+class ProductSearchSortTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @MockitoBean
+    private ProductDetailCache productDetailCache;
+
+    @MockitoBean
+    private RelatedProductsIndex relatedProductsIndex;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User seller = new User();
+        seller.setName("Seller");
+        seller.setEmail("seller@example.com");
+        seller.setPassword("hash");
+        entityManager.persist(seller);
+
+        Category category = new Category();
+        category.setName("Kitchen");
+        entityManager.persist(category);
+
+        TransportZone zone = new TransportZone();
+        zone.setName("Local");
+        zone.setCost(new BigDecimal("40.00"));
+        zone.setFlatCarbonFootprint(new BigDecimal("1.50"));
+        entityManager.persist(zone);
+
+        // "bamboo" twice in a name ranks that product first, so relevance order isn't id order
+        String[] names = {"Bamboo brush", "Steel bottle", "Cotton bag", "Bamboo bamboo straw", "Jute mat"};
+        for (String name : names) {
+            Product product = new Product();
+            product.setName(name);
+            product.setDescription("Reusable bamboo");
+            product.setPrice(new BigDecimal("9.99"));
+            product.setStockQuantity(100);
+            product.setSeller(seller);
+            product.setCategory(category);
+            product.setTransportZone(zone);
+            ids.add(entityManager.persist(product).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    void searchSortedByIdAscendingComesBackInIdOrder() {
+        for (String query : new String[]{null, "bamboo"}) {
+            List<Long> result = ids(productService.searchProducts(query, null, null, null,
+                    PageRequest.of(0, 10, Sort.by(Sort.Order.asc("id")))).getContent());
+
+            assertThat(result).as("query %s", query).containsExactlyElementsOf(ids);
+        }
+    }
+
+    @Test
+    void defaultIdDescendingSortKeepsTheIndexOrder() {
+        List<Long> newestFirst = ids.stream().sorted(Comparator.reverseOrder()).toList();
+
+        assertThat(ids(productService.searchProducts(null, null, null, null,
+                PageRequest.of(0, 10, Sort.by(Sort.Order.desc("id")))).getContent()))
+                .containsExactlyElementsOf(newestFirst);
+        assertThat(ids(productService.searchProducts("bamboo", null, null, null,
+                PageRequest.of(0, 10, Sort.by(Sort.Order.desc("id")))).getContent()))
+                .containsExactlyElementsOf(productSearchIndex.search("bamboo", null, null, null).ids());
+    }
+
+    @Test
+    void scrollSearchSortedByIdAscendingPagesInIdOrder() {
+        List<Long> scrolled = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductSliceResponse slice = productService.scrollSearch("bamboo", null, null, null, Sort.Order.asc("id"), cursor, 1);
+            scrolled.addAll(ids(slice.getContent()));
+            cursor = slice.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> matching = productSearchIndex.search("bamboo", null, null, null).ids();
+        assertThat(scrolled).containsExactlyElementsOf(matching.stream().sorted().toList());
+        assertThat(matching).isNotEqualTo(scrolled);
+    }
+
+    private static List<Long> ids(List<ProductResponseDto> dtos) {
+        return dtos.stream().map(ProductResponseDto::getId).toList();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSortFieldTest {
+
+    @Test
+    void acceptsEveryWhitelistedProperty() {
+        for (ProductSortField field : ProductSortField.values()) {
+            assertThat(ProductSortField.fromProperty(field.getProperty())).isEqualTo(field);
+        }
+    }
+
+    @Test
+    void rejectsUnindexedPropertiesWithBadRequest() {
+        for (String property : new String[]{"name", "description", "stockQuantity", "ID", "", null}) {
+            assertThatThrownBy(() -> ProductSortField.fromProperty(property))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+                    .hasMessageContaining("Allowed: id, price");
+        }
+    }
+
+    @Test
+    void defaultsToDescendingAndBreaksTiesById() {
+        assertThat(ProductSortField.toSort(new String[]{"price"}))
+                .containsExactly(Sort.Order.desc("price"), Sort.Order.desc("id"));
+        assertThat(ProductSortField.toSort(new String[]{"price", "ASC"}))
+                .containsExactly(Sort.Order.asc("price"), Sort.Order.asc("id"));
+        assertThat(ProductSortField.toSort(new String[]{"id", "asc"}))
+                .containsExactly(Sort.Order.asc("id"));
+    }
+
+    @Test
+    void cursorValuesRoundTrip() {
+        Product product = new Product();
+        product.setId(42L);
+        product.setPrice(new BigDecimal("1E+2"));
+        product.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        product.setEcoPoints(7);
+
+        assertThat(ProductSortField.PRICE.cursorValue(product)).isEqualTo("100");
+        for (ProductSortField field : new ProductSortField[]{
+                ProductSortField.ID, ProductSortField.PRICE, ProductSortField.CREATED_AT, ProductSortField.ECO_POINTS}) {
+            String value = field.cursorValue(product);
+            assertThat(String.valueOf(field.parseCursorValue(value))).isEqualTo(value);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.model.ReferralSequence;
+import com.ecobazaarx.v2.repository.ReferralSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReferralCodeGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int BLOCK_SIZE = 100;
+
+    private final ReferralSequenceRepository repository = mock(ReferralSequenceRepository.class);
+    private final ReferralSequence sequence = new ReferralSequence(ReferralSequence.SINGLETON_ID, 1L);
+    private ReferralCodeGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.findByIdForUpdate(ReferralSequence.SINGLETON_ID)).thenReturn(Optional.of(sequence));
+        generator = new ReferralCodeGenerator(repository, transactionManager, BLOCK_SIZE);
+    }
+
+    @Test
+    void generatedCodesAreUniqueAndPlausible() {
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 20 * BLOCK_SIZE; i++) {
+            String code = generator.nextCode();
+            assertThat(code).hasSize(9).matches("[" + ALPHABET + "]+");
+            assertThat(generator.isPlausible(code)).as(code).isTrue();
+            codes.add(code);
+        }
+
+        assertThat(codes).hasSize(20 * BLOCK_SIZE);
+        // one locked row update per block
+        verify(repository, times(20)).save(sequence);
+        assertThat(sequence.getNextValue()).isEqualTo(1L + 20 * BLOCK_SIZE);
+    }
+
+    @Test
+    void singleWrongCharIsRejected() {
+        for (int n = 0; n < 200; n++) {
+            String code = generator.nextCode();
+            for (int i = 0; i < code.length(); i++) {
+                for (char replacement : ALPHABET.toCharArray()) {
+                    if (replacement == code.charAt(i) || isZeroZSwap(code.charAt(i), replacement)) {
+                        continue;
+                    }
+                    String typo = code.substring(0, i) + replacement + code.substring(i + 1);
+                    assertThat(generator.isPlausible(typo)).as(typo).isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    void adjacentSwapInTheBodyIsRejected() {
+        for (int n = 0; n < 200; n++) {
+            String code = generator.nextCode();
+            for (int i = 0; i < 7; i++) {
+                char a = code.charAt(i);
+                char b = code.charAt(i + 1);
+                if (a == b || isZeroZSwap(a, b)) {
+                    continue;
+                }
+                String swapped = code.substring(0, i) + b + a + code.substring(i + 2);
+                assertThat(generator.isPlausible(swapped)).as(swapped).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void legacyAndForeignCodesAreLeftToTheLookup() {
+        assertThat(generator.isPlausible("a1b2c3d4")).isTrue();
+        assertThat(generator.isPlausible("SHORT")).isTrue();
+        // U is not in the alphabet
+        assertThat(generator.isPlausible("ABCDEFGHU")).isFalse();
+    }
+
+    // 0 and Z are 31 apart in the alphabet, so they're the same mod 31
+    private static boolean isZeroZSwap(char a, char b) {
+        return (a == '0' && b == 'Z') || (a == 'Z' && b == '0');
+    }
+}
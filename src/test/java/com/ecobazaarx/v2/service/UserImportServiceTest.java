@@ -0,0 +1,116 @@
+package com.ecobazaarx.v2.service;
+
+import com.ecobazaarx.v2.dto.UserImportError;
+import com.ecobazaarx.v2.dto.UserImportResponse;
+import com.ecobazaarx.v2.model.Role;
+import com.ecobazaarx.v2.model.RoleName;
+import com.ecobazaarx.v2.model.User;
+import com.ecobazaarx.v2.repository.RoleRepository;
+import com.ecobazaarx.v2.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// IGNORECASE gives the email column MySQL's default case-insensitive collation.
+// Discount has a "value" column, a keyword in H2.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-import;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserImportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        Role customer = new Role();
+        customer.setName(RoleName.ROLE_CUSTOMER);
+        entityManager.persist(customer);
+
+        User existing = new User();
+        existing.setName("Bob");
+        existing.setEmail("Bob@Example.com");
+        existing.setPassword("hash");
+        entityManager.persist(existing);
+        entityManager.flush();
+
+        ReferralCodeGenerator referralCodes = mock(ReferralCodeGenerator.class);
+        AtomicInteger sequence = new AtomicInteger();
+        when(referralCodes.nextCode()).thenAnswer(invocation -> "CODE" + sequence.incrementAndGet());
+        importService = new UserImportService(userRepository, roleRepository, NoOpPasswordEncoder.getInstance(),
+                referralCodes, new NamedParameterJdbcTemplate(dataSource), transactionManager, new ObjectMapper(), 2);
+    }
+
+    private UserImportResponse importCsv(String... lines) throws IOException {
+        String csv = "name,email,password\n" + String.join("\n", lines) + "\n";
+        return importService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "text/csv");
+    }
+
+    @Test
+    void mixedCaseDuplicatesInOneFileImportOnce() throws IOException {
+        UserImportResponse response = importCsv(
+                "Alice,Alice@Example.com,secret",
+                "Alice again, alice@example.COM ,secret",
+                "Carol,carol@example.com,secret",
+                "Alice third,ALICE@EXAMPLE.COM,secret");
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(UserImportError::getRowNumber, UserImportError::getMessage)
+                .containsExactly(
+                        tuple(2, "Duplicate email in file"),
+                        tuple(4, "Duplicate email in file"));
+        assertThat(userRepository.findExistingEmails(List.of("alice@example.com", "carol@example.com")))
+                .containsExactlyInAnyOrder("alice@example.com", "carol@example.com");
+    }
+
+    @Test
+    void emailsOfExistingUsersAreRejectedWhateverTheirCase() throws IOException {
+        UserImportResponse response = importCsv(
+                "Bob,bob@example.com,secret",
+                "Bobby,BOB@example.com,secret",
+                "Dan,Dan@Example.com,secret");
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getErrors()).extracting(UserImportError::getRowNumber, UserImportError::getMessage)
+                .containsExactlyInAnyOrder(
+                        tuple(1, "Email already in use"),
+                        tuple(2, "Duplicate email in file"));
+        assertThat(userRepository.findByEmail("dan@example.com")).get()
+                .extracting(User::getEmail).isEqualTo("dan@example.com");
+    }
+}